@@ -0,0 +1,29 @@
+package com.assignment.cryptowallet.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+public enum ExecutorMode {
+    PLATFORM,
+    VIRTUAL;
+
+    public ExecutorService newExecutor(int poolSize) {
+        return switch (this) {
+            case PLATFORM -> new ThreadPoolExecutor(
+                    poolSize,
+                    poolSize,
+                    60, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(),
+                    new ThreadPoolExecutor.CallerRunsPolicy()
+            );
+            case VIRTUAL -> Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("task-", 0).factory());
+        };
+    }
+
+    public static ExecutorMode of(String mode) {
+        return valueOf(mode.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,41 @@
+package com.assignment.cryptowallet.Configuration;
+
+import com.assignment.cryptowallet.service.CurrencyNameCache;
+import com.assignment.cryptowallet.service.PriceCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Lookups by {@code cache} and {@code result} (hit or miss) as {@code cache.gets}, and entry counts as
+     * {@code cache.size}, so hit rates can be derived from the Prometheus endpoint.
+     */
+    @Bean
+    public MeterBinder cacheMetrics(CurrencyNameCache currencyNameCache, PriceCache priceCache) {
+        return registry -> {
+            FunctionCounter.builder("cache.gets", currencyNameCache, CurrencyNameCache::getHitCount)
+                    .tags("cache", "currency-names", "result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("cache.gets", currencyNameCache, CurrencyNameCache::getMissCount)
+                    .tags("cache", "currency-names", "result", "miss")
+                    .register(registry);
+            Gauge.builder("cache.size", currencyNameCache, CurrencyNameCache::size)
+                    .tag("cache", "currency-names")
+                    .register(registry);
+            FunctionCounter.builder("cache.gets", priceCache, PriceCache::getHitCount)
+                    .tags("cache", "prices", "result", "hit")
+                    .register(registry);
+            FunctionCounter.builder("cache.gets", priceCache, PriceCache::getMissCount)
+                    .tags("cache", "prices", "result", "miss")
+                    .register(registry);
+            Gauge.builder("cache.size", priceCache, PriceCache::size)
+                    .tag("cache", "prices")
+                    .register(registry);
+        };
+    }
+}
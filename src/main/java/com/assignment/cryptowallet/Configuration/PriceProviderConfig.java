@@ -0,0 +1,49 @@
+package com.assignment.cryptowallet.Configuration;
+
+import com.assignment.cryptowallet.service.CoinCapClient;
+import com.assignment.cryptowallet.service.HedgedPriceProvider;
+import com.assignment.cryptowallet.service.PriceProvider;
+import com.assignment.cryptowallet.service.UpstreamGateway;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class PriceProviderConfig {
+    private static final Logger logger = LoggerFactory.getLogger(PriceProviderConfig.class);
+
+    /**
+     * CoinCap first, then one client per CoinCap-compatible URL in {@code price.providers.mirrors}, each with
+     * its own rate limit and circuit, hedged after {@code price.providers.hedge-delay} ms.
+     */
+    @Bean
+    @Primary
+    public PriceProvider priceProvider(CoinCapClient coinCapClient,
+                                       WebClient coinCapWebClient,
+                                       UpstreamGateway upstreamGateway,
+                                       @Value("${price.providers.mirrors:}") List<String> mirrors,
+                                       @Value("${price.providers.hedge-delay:300}") long hedgeDelay,
+                                       @Value("${coincap.client.max-concurrency:16}") int maxConcurrency,
+                                       @Value("${coincap.client.request-timeout:5000}") long requestTimeout,
+                                       MeterRegistry meterRegistry) {
+        List<PriceProvider> providers = new ArrayList<>();
+        providers.add(coinCapClient);
+        for (String mirror : mirrors) {
+            if (!mirror.isBlank()) {
+                providers.add(new CoinCapClient(mirror, coinCapWebClient.mutate().baseUrl(mirror).build(),
+                        upstreamGateway.newInstance(), maxConcurrency, requestTimeout, meterRegistry));
+            }
+        }
+        logger.info("Using price providers {}", providers.stream().map(PriceProvider::name).toList());
+        return new HedgedPriceProvider(providers, Duration.ofMillis(hedgeDelay), maxConcurrency);
+    }
+}
@@ -1,24 +1,49 @@
 package com.assignment.cryptowallet.Configuration;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
 
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
 
 @Configuration
 @EnableScheduling
 public class SchedulerConfig {
-    @Bean
-    public ThreadPoolExecutor taskExecutor() {
-        return new ThreadPoolExecutor(
-                3,
-                3,
-                60, TimeUnit.SECONDS,
-                new LinkedBlockingQueue<>(),
-                new ThreadPoolExecutor.CallerRunsPolicy()
-        );
+    private static final Logger logger = LoggerFactory.getLogger(SchedulerConfig.class);
+
+    /**
+     * Publishes the executor's pool size, queue depth and task timings as {@code executor.*} meters, and
+     * counts tasks run on the submitting thread because the pool rejected them in {@code executor.caller.runs}.
+     * Each currency discovery holds a thread while it waits on CoinCap, so the platform pool has at least
+     * {@code currency.discovery.parallelism} threads.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService taskExecutor(@Value("${task.executor.mode:platform}") String mode,
+                                        @Value("${task.executor.pool-size:3}") int poolSize,
+                                        @Value("${currency.discovery.parallelism:8}") int discoveryParallelism,
+                                        MeterRegistry meterRegistry) {
+        ExecutorMode executorMode = ExecutorMode.of(mode);
+        int threads = Math.max(poolSize, discoveryParallelism);
+        logger.info("Using {} task executor", executorMode);
+        ExecutorService executor = executorMode.newExecutor(threads);
+        if (executor instanceof ThreadPoolExecutor pool) {
+            Counter callerRuns = Counter.builder("executor.caller.runs")
+                    .tag("name", "taskExecutor")
+                    .register(meterRegistry);
+            RejectedExecutionHandler handler = pool.getRejectedExecutionHandler();
+            pool.setRejectedExecutionHandler((task, rejectedBy) -> {
+                callerRuns.increment();
+                handler.rejectedExecution(task, rejectedBy);
+            });
+        }
+        return ExecutorServiceMetrics.monitor(meterRegistry, executor, "taskExecutor");
     }
 }
@@ -0,0 +1,43 @@
+package com.assignment.cryptowallet.Configuration;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+@Configuration
+public class WebClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider coinCapConnectionProvider(
+            @Value("${coincap.client.max-connections:200}") int maxConnections,
+            @Value("${coincap.client.pending-acquire-timeout:10000}") long pendingAcquireTimeout) {
+        return ConnectionProvider.builder("coincap")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofMillis(pendingAcquireTimeout))
+                .maxIdleTime(Duration.ofSeconds(30))
+                .build();
+    }
+
+    @Bean
+    public WebClient coinCapWebClient(WebClient.Builder builder,
+                                      ConnectionProvider coinCapConnectionProvider,
+                                      @Value("${coincap.api.url}") String apiUrl,
+                                      @Value("${coincap.client.connect-timeout:2000}") int connectTimeout,
+                                      @Value("${coincap.client.request-timeout:5000}") long requestTimeout) {
+        HttpClient httpClient = HttpClient.create(coinCapConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeout)
+                .responseTimeout(Duration.ofMillis(requestTimeout));
+        return builder
+                .baseUrl(apiUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(16 * 1024 * 1024))
+                .build();
+    }
+}
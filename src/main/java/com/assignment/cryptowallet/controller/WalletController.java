@@ -1,17 +1,30 @@
 package com.assignment.cryptowallet.controller;
 
+import com.assignment.cryptowallet.dto.BookReport;
 import com.assignment.cryptowallet.dto.ResponseDto;
 import com.assignment.cryptowallet.dto.WalletDto;
+import com.assignment.cryptowallet.dto.WalletImportReport;
 import com.assignment.cryptowallet.model.Wallet;
 import com.assignment.cryptowallet.repository.WalletRepository;
 import com.assignment.cryptowallet.service.CryptoService;
+import com.assignment.cryptowallet.service.HoldingsIndex;
+import com.assignment.cryptowallet.service.WalletImportService;
+import com.assignment.cryptowallet.service.WalletValuationIndex;
+import com.assignment.cryptowallet.service.WalletValuationStream;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+import java.io.IOException;
+import java.io.InputStream;
 
 @RestController
 @RequestMapping("/api/wallet")
 public class WalletController {
+    static final int MAX_TOP_WALLETS = 1000;
 
     @Autowired
     private WalletRepository walletRepository;
@@ -19,11 +32,41 @@ public class WalletController {
     @Autowired
     private CryptoService cryptoService;
 
+    @Autowired
+    private WalletImportService walletImportService;
+
+    @Autowired
+    private WalletValuationIndex walletValuationIndex;
+
+    @Autowired
+    private WalletValuationStream walletValuationStream;
+
+    @Autowired
+    private HoldingsIndex holdingsIndex;
+
     @PostMapping
     public ResponseEntity<ResponseDto> createWallet(@RequestBody WalletDto walletDto) {
         return ResponseEntity.ok(cryptoService.registerWallet(walletDto));
     }
 
+    @PostMapping(value = "/import", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<WalletImportReport> importWallets(InputStream body) throws IOException {
+        return ResponseEntity.ok(walletImportService.importWallets(body));
+    }
+
+    /**
+     * Market value and cost basis per symbol across all wallets, and the {@code top} most valuable wallets,
+     * from the in-memory holdings index.
+     */
+    @GetMapping("/book")
+    public ResponseEntity<BookReport> getBook(@RequestParam(defaultValue = "10") int top) {
+        if (top < 0 || top > MAX_TOP_WALLETS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(new BookReport(holdingsIndex.assetsUnderManagement(), holdingsIndex.costBasis(),
+                holdingsIndex.topWallets(top)));
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<Wallet> getWallet(@PathVariable Long id) {
         Wallet wallet = walletRepository.findById(id).orElse(null);
@@ -32,4 +75,19 @@ public class WalletController {
         }
         return ResponseEntity.ok(wallet);
     }
+
+    @GetMapping("/{id}/valuation")
+    public ResponseEntity<ResponseDto> getValuation(@PathVariable Long id) {
+        return walletValuationIndex.valuation(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = "/{id}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Flux<ServerSentEvent<ResponseDto>>> streamWallet(@PathVariable Long id) {
+        if (!walletRepository.existsById(id)) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(walletValuationStream.subscribe(id));
+    }
 }
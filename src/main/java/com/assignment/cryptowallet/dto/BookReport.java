@@ -0,0 +1,12 @@
+package com.assignment.cryptowallet.dto;
+
+import com.assignment.cryptowallet.service.HoldingsIndex;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+public record BookReport(Map<String, BigDecimal> assetsUnderManagement,
+                         Map<String, BigDecimal> costBasis,
+                         List<HoldingsIndex.WalletValue> topWallets) {
+}
@@ -0,0 +1,5 @@
+package com.assignment.cryptowallet.dto;
+
+public record PriceWriteReport(int rowsWritten,
+                               long elapsedMillis) {
+}
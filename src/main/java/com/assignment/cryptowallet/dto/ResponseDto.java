@@ -2,6 +2,7 @@ package com.assignment.cryptowallet.dto;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.List;
 
 
 public record ResponseDto(
@@ -10,5 +11,6 @@ public record ResponseDto(
      BigDecimal bestPerformance,
      String worstAsset,
      BigDecimal worstPerformance,
-     LocalDateTime lastUpdated
+     LocalDateTime lastUpdated,
+     List<String> unresolvedSymbols
 ){}
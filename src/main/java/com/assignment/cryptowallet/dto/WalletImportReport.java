@@ -0,0 +1,11 @@
+package com.assignment.cryptowallet.dto;
+
+import java.util.List;
+
+public record WalletImportReport(int walletsImported,
+                                 int assetsImported,
+                                 int walletsRejected,
+                                 List<String> unresolvedSymbols,
+                                 long elapsedMillis,
+                                 double walletsPerSecond) {
+}
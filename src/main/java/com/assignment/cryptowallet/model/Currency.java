@@ -1,9 +1,11 @@
 package com.assignment.cryptowallet.model;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -12,9 +14,11 @@ import java.time.LocalDateTime;
 public class Currency {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "currency_seq")
+    @SequenceGenerator(name = "currency_seq", sequenceName = "currency_seq", allocationSize = 50)
     private Long id;
     private String name;
+    @Column(unique = true)
     private String symbol;
     private BigDecimal LatestPrice;
     private LocalDateTime updateTime;
@@ -6,7 +6,8 @@ import java.util.List;
 @Entity
 public class Wallet {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "wallet_seq")
+    @SequenceGenerator(name = "wallet_seq", sequenceName = "wallet_seq", allocationSize = 50)
     private Long id;
 
     @OneToMany( targetEntity = Asset.class, mappedBy = "wallet", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
@@ -2,5 +2,29 @@ package com.assignment.cryptowallet.repository;
 
 import com.assignment.cryptowallet.model.Asset;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
-public interface AssetRepository extends JpaRepository<Asset, Long> {}
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface AssetRepository extends JpaRepository<Asset, Long> {
+    List<Asset> findByWalletId(Long walletId);
+
+    /**
+     * Every wallet's assets as unmanaged rows, grouped by wallet. Must be consumed within a transaction.
+     */
+    @Query("select a.wallet.id as walletId, a.symbol as symbol, a.quantity as quantity, a.price as price"
+            + " from Asset a where a.wallet is not null order by a.wallet.id, a.id")
+    Stream<Holding> streamHoldings();
+
+    interface Holding {
+        Long getWalletId();
+
+        String getSymbol();
+
+        BigDecimal getQuantity();
+
+        BigDecimal getPrice();
+    }
+}
@@ -1,6 +1,13 @@
 package com.assignment.cryptowallet.repository;
 
 import com.assignment.cryptowallet.model.Wallet;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-public interface WalletRepository extends JpaRepository<Wallet, Long> {}
+import java.util.Optional;
+
+public interface WalletRepository extends JpaRepository<Wallet, Long> {
+    @Override
+    @EntityGraph(attributePaths = "assets")
+    Optional<Wallet> findById(Long id);
+}
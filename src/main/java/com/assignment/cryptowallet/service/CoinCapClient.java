@@ -0,0 +1,156 @@
+package com.assignment.cryptowallet.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Non-blocking CoinCap v2 client. Calls share the pooled {@code coinCapWebClient}, go through the
+ * {@link UpstreamGateway}, each request is bounded by {@code coincap.client.request-timeout} and
+ * multi-request fan-outs keep at most {@code coincap.client.max-concurrency} requests in flight.
+ * Failures are passed on, so that {@link HedgedPriceProvider} can fail over. Call latency, including gateway
+ * waits and retries, is recorded in the {@code coincap.requests} timer by upstream, endpoint and outcome.
+ */
+@Component
+public class CoinCapClient implements PriceProvider {
+    private static final Logger logger = LoggerFactory.getLogger(CoinCapClient.class);
+    private final String name;
+    private final WebClient webClient;
+    private final UpstreamGateway upstreamGateway;
+    private final int maxConcurrency;
+    private final Duration requestTimeout;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public CoinCapClient(WebClient coinCapWebClient,
+                         UpstreamGateway upstreamGateway,
+                         @Value("${coincap.client.max-concurrency:16}") int maxConcurrency,
+                         @Value("${coincap.client.request-timeout:5000}") long requestTimeout,
+                         MeterRegistry meterRegistry) {
+        this("coincap", coinCapWebClient, upstreamGateway, maxConcurrency, requestTimeout, meterRegistry);
+    }
+
+    public CoinCapClient(String name, WebClient webClient, UpstreamGateway upstreamGateway,
+                         int maxConcurrency, long requestTimeout, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.webClient = webClient;
+        this.upstreamGateway = upstreamGateway;
+        this.maxConcurrency = maxConcurrency;
+        this.requestTimeout = Duration.ofMillis(requestTimeout);
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public Mono<BigDecimal> fetchPrice(String id) {
+        return timed("asset", upstreamGateway.call("fetchPrice " + id, () -> webClient.get()
+                        .uri("/assets/{id}", id)
+                        .retrieve()
+                        .bodyToMono(byte[].class)
+                        .timeout(requestTimeout)
+                        .mapNotNull(CoinCapResponseParser::firstPriceUsd)));
+    }
+
+    @Override
+    public Mono<Map<String, BigDecimal>> fetchPrices(List<String> ids, int batchSize) {
+        List<List<String>> batches = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += batchSize) {
+            batches.add(ids.subList(i, Math.min(i + batchSize, ids.size())));
+        }
+        return Flux.fromIterable(batches)
+                .flatMap(batch -> fetchBatch(batch)
+                        .onErrorResume(e -> {
+                            logger.error("Failed to fetch prices for {} from {}: {}", batch, name, e.getMessage());
+                            return Mono.just(Map.of());
+                        }), maxConcurrency)
+                .flatMapIterable(Map::entrySet)
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    @Override
+    public Mono<Map<String, BigDecimal>> fetchBatch(List<String> ids) {
+        return timed("assets", upstreamGateway.call("fetchBatch", () -> webClient.get()
+                        .uri(uriBuilder -> uriBuilder.path("/assets")
+                                .queryParam("ids", String.join(",", ids))
+                                .build())
+                        .retrieve()
+                        .bodyToMono(byte[].class)
+                        .timeout(requestTimeout)
+                        .map(CoinCapResponseParser::pricesById)));
+    }
+
+    @Override
+    public Mono<Map<String, String>> fetchSymbolNames(int limit) {
+        return timed("symbols", upstreamGateway.call("fetchSymbolNames", () -> webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/assets")
+                        .queryParam("limit", limit)
+                        .build())
+                .retrieve()
+                .bodyToMono(byte[].class)
+                .timeout(requestTimeout)
+                .map(CoinCapResponseParser::namesBySymbol)));
+    }
+
+    @Override
+    public Mono<String> searchName(String symbol) {
+        return timed("search", upstreamGateway.call("searchName " + symbol, () -> webClient.get()
+                .uri(uriBuilder -> uriBuilder.path("/assets")
+                        .queryParam("search", symbol)
+                        .queryParam("limit", 1)
+                        .build())
+                .retrieve()
+                .bodyToMono(byte[].class)
+                .timeout(requestTimeout)
+                .mapNotNull(CoinCapResponseParser::firstName)));
+    }
+
+    @Override
+    public Mono<BigDecimal> historicalPrice(String id, long start, long end) {
+        return timed("history", upstreamGateway.call("historicalPrice " + id, () -> webClient.get()
+                        .uri(uriBuilder -> uriBuilder.path("/assets/{id}/history")
+                                .queryParam("interval", "m1")
+                                .queryParam("start", start)
+                                .queryParam("end", end)
+                                .build(id))
+                        .retrieve()
+                        .bodyToMono(byte[].class)
+                        .timeout(requestTimeout)
+                        .mapNotNull(CoinCapResponseParser::firstPriceUsd)));
+    }
+
+    private <T> Mono<T> timed(String endpoint, Mono<T> call) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            return call
+                    .doOnSuccess(result -> record(endpoint, "success", start))
+                    .doOnError(e -> record(endpoint,
+                            e instanceof UpstreamUnavailableException ? "rejected" : "error", start));
+        });
+    }
+
+    private void record(String endpoint, String outcome, long start) {
+        Timer.builder("coincap.requests")
+                .tags("upstream", name, "endpoint", endpoint, "outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,137 @@
+package com.assignment.cryptowallet.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Streaming reader for CoinCap v2 responses. All parsing goes through one shared {@link JsonFactory};
+ * single-value lookups stop reading as soon as the first {@code data} entry has been inspected.
+ */
+public final class CoinCapResponseParser {
+    private static final JsonFactory JSON_FACTORY = JsonFactory.builder().build();
+
+    private CoinCapResponseParser() {
+    }
+
+    /**
+     * Returns {@code data[0].name} of an {@code /assets?search=} response, or {@code null} if there is none.
+     */
+    public static String firstName(byte[] body) {
+        return firstDataField(body, "name");
+    }
+
+    /**
+     * Returns {@code priceUsd} of the first {@code data} entry, or of {@code data} itself when it is an
+     * object as in {@code /assets/{id}}; {@code null} if there is none.
+     */
+    public static BigDecimal firstPriceUsd(byte[] body) {
+        String priceUsd = firstDataField(body, "priceUsd");
+        return priceUsd != null ? new BigDecimal(priceUsd) : null;
+    }
+
+    /**
+     * Returns {@code id -> priceUsd} for every entry of an {@code /assets} listing that has a price.
+     */
+    public static Map<String, BigDecimal> pricesById(byte[] body) {
+        Map<String, BigDecimal> prices = new HashMap<>();
+        readDataArray(body, "id", "priceUsd", (id, priceUsd) -> prices.put(id, new BigDecimal(priceUsd)));
+        return prices;
+    }
+
+    /**
+     * Returns {@code symbol -> name} for every entry of an {@code /assets} listing, keeping the first
+     * (highest ranked) name of a symbol.
+     */
+    public static Map<String, String> namesBySymbol(byte[] body) {
+        Map<String, String> names = new HashMap<>();
+        readDataArray(body, "symbol", "name", names::putIfAbsent);
+        return names;
+    }
+
+    private static String firstDataField(byte[] body, String field) {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (!moveToData(parser)) {
+                return null;
+            }
+            JsonToken token = parser.currentToken();
+            if (token == JsonToken.START_ARRAY) {
+                token = parser.nextToken();
+            }
+            return token == JsonToken.START_OBJECT ? readField(parser, field) : null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Malformed CoinCap response", e);
+        }
+    }
+
+    private static void readDataArray(byte[] body, String keyField, String valueField,
+                                      BiConsumer<String, String> consumer) {
+        try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+            if (!moveToData(parser) || parser.currentToken() != JsonToken.START_ARRAY) {
+                return;
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                String key = null;
+                String value = null;
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    String name = parser.currentName();
+                    JsonToken token = parser.nextToken();
+                    if (keyField.equals(name)) {
+                        key = scalarValue(parser, token);
+                    } else if (valueField.equals(name)) {
+                        value = scalarValue(parser, token);
+                    } else {
+                        parser.skipChildren();
+                    }
+                }
+                if (key != null && value != null) {
+                    consumer.accept(key, value);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Malformed CoinCap response", e);
+        }
+    }
+
+    private static boolean moveToData(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return false;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            parser.nextToken();
+            if ("data".equals(name)) {
+                return true;
+            }
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    private static String readField(JsonParser parser, String field) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken token = parser.nextToken();
+            if (field.equals(name)) {
+                return scalarValue(parser, token);
+            }
+            parser.skipChildren();
+        }
+        return null;
+    }
+
+    private static String scalarValue(JsonParser parser, JsonToken token) throws IOException {
+        if (token == null || !token.isScalarValue() || token == JsonToken.VALUE_NULL) {
+            parser.skipChildren();
+            return null;
+        }
+        return parser.getText();
+    }
+}
@@ -7,159 +7,249 @@ import com.assignment.cryptowallet.mapper.WalletMapper;
 import com.assignment.cryptowallet.model.Asset;
 import com.assignment.cryptowallet.model.Currency;
 import com.assignment.cryptowallet.model.Wallet;
-import com.assignment.cryptowallet.repository.AssetRepository;
 import com.assignment.cryptowallet.repository.CurrencyRepository;
 import com.assignment.cryptowallet.repository.WalletRepository;
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 public class CryptoService {
     private static final Logger logger = LoggerFactory.getLogger(CryptoService.class);
-    private final RestTemplate restTemplate;
+    private final PriceProvider priceProvider;
     private final WalletRepository walletRepository;
-    private final AssetRepository assetRepository;
     private final CurrencyRepository currencyRepository;
     private final WalletMapper walletMapper;
-    @Value("${coincap.api.url}")
-    private String apiUrl;
+    private final PriceCache priceCache;
+    private final ExecutorService taskExecutor;
+    private final CurrencyNameCache currencyNameCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, CompletableFuture<Currency>> inFlightDiscoveries = new ConcurrentHashMap<>();
     @Value("${currency.history.start}")
     private int historyStart;
+    @Value("${currency.discovery.parallelism:8}")
+    private int discoveryParallelism;
+    @Value("${currency.discovery.timeout:10000}")
+    private long discoveryTimeout;
 
     @Autowired
-    public CryptoService(RestTemplate restTemplate,
+    public CryptoService(PriceProvider priceProvider,
                          WalletRepository walletRepository,
-                         AssetRepository assetRepository,
                          CurrencyRepository currencyRepository,
-                         WalletMapper walletMapper) {
-        this.restTemplate = restTemplate;
+                         WalletMapper walletMapper,
+                         PriceCache priceCache,
+                         ExecutorService taskExecutor,
+                         CurrencyNameCache currencyNameCache,
+                         ApplicationEventPublisher eventPublisher,
+                         MeterRegistry meterRegistry) {
+        this.priceProvider = priceProvider;
         this.walletRepository = walletRepository;
-        this.assetRepository = assetRepository;
         this.currencyRepository = currencyRepository;
         this.walletMapper = walletMapper;
+        this.priceCache = priceCache;
+        this.taskExecutor = taskExecutor;
+        this.currencyNameCache = currencyNameCache;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
     }
 
-    @Transactional
+    /**
+     * Registers the wallet, recording the time spent discovering currencies, valuing the wallet and
+     * persisting it in the {@code wallet.registration} timer by {@code phase}. No transaction spans the
+     * discovery, so waiting requests do not hold the connections the discovery threads need to save
+     * currencies; the wallet and its cascaded assets are saved in one repository transaction.
+     */
     public ResponseDto registerWallet(WalletDto walletDto) {
         if (walletDto == null) {
             throw new IllegalArgumentException("wallet is null");
         }
         Wallet wallet = walletMapper.toEntity(walletDto);
-        registerCurrency(walletDto.assets());
-        ResponseDto responseDto = calculateResponseStatistics(wallet);
-        wallet.getAssets().forEach(asset -> asset.setWallet(wallet));
-        saveAssets(wallet.getAssets());
-        walletRepository.save(wallet);
+        timed("currencies", () -> registerCurrency(walletDto.assets()));
+        ResponseDto responseDto = timed("valuation", () -> calculateResponseStatistics(wallet));
+        timed("persist", () -> {
+            wallet.getAssets().forEach(asset -> asset.setWallet(wallet));
+            walletRepository.save(wallet);
+        });
+        eventPublisher.publishEvent(new WalletRegisteredEvent(wallet.getId(), wallet.getAssets()));
         return responseDto;
 
     }
 
-    private void saveAssets(List<Asset> asset) {
-        assetRepository.saveAll(asset);
+    private <T> T timed(String phase, Supplier<T> step) {
+        return registrationTimer(phase).record(step);
     }
 
-    @Async
-    public CompletableFuture<BigDecimal> fetchPrice(String name) {
-        String url = String.format("%s/assets/%s", apiUrl, name.toLowerCase());
-        ResponseEntity<Map> response = restTemplate.getForEntity(url, Map.class);
-        Map<String, Object> data = (Map<String, Object>) response.getBody().get("data");
-        return CompletableFuture.completedFuture(new BigDecimal((String) data.get("priceUsd")));
+    private void timed(String phase, Runnable step) {
+        registrationTimer(phase).record(step);
+    }
+
+    private Timer registrationTimer(String phase) {
+        return Timer.builder("wallet.registration")
+                .tag("phase", phase)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
     private void registerCurrency(List<AssetDto> assets) {
         logger.info("Starting asset registration for {} currencies", assets.size());
 
-        List<Currency> currencies = assets.stream()
-                .map(this::getCurrencyPrice)
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
-        try {
-            if (!currencies.isEmpty()) {
-                currencyRepository.saveAll(currencies);
-                logger.info("Successfully saved {} currencies to the database", currencies.size());
-            } else {
-                logger.info("asset already exists");
+        registerCurrencies(assets.stream()
+                .map(AssetDto::symbol)
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+    }
+
+    /**
+     * Makes sure every symbol has a priced currency, discovering unknown ones concurrently within
+     * {@code currency.discovery.timeout}. Returns the symbols that have a price afterwards.
+     */
+    public Set<String> registerCurrencies(Set<String> symbols) {
+        Set<String> knownSymbols = priceCache.getPrices(symbols).keySet();
+        Set<String> pricedSymbols = new HashSet<>(knownSymbols);
+
+        Semaphore permits = new Semaphore(Math.max(1, discoveryParallelism));
+        Map<String, CompletableFuture<Currency>> lookups = new LinkedHashMap<>();
+        symbols.stream()
+                .filter(symbol -> !knownSymbols.contains(symbol))
+                .forEach(symbol -> lookups.put(symbol, discoverCurrency(symbol, permits)));
+
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(discoveryTimeout);
+        int discovered = 0;
+        for (Map.Entry<String, CompletableFuture<Currency>> lookup : lookups.entrySet()) {
+            if (awaitCurrency(lookup.getKey(), lookup.getValue(), deadline) != null) {
+                pricedSymbols.add(lookup.getKey());
+                discovered++;
             }
-        } catch (Exception e) {
-            logger.error("Error saving currencies to database", e);
         }
+        if (lookups.isEmpty()) {
+            logger.info("asset already exists");
+        } else {
+            logger.info("Discovered {} of {} new currencies", discovered, lookups.size());
+        }
+        return pricedSymbols;
     }
 
-    private Currency getCurrencyPrice(AssetDto assetDto) {
-        logger.debug("Getting price for asset: {}", assetDto.symbol());
-        try {
-            if (!isCurrencyExist(assetDto.symbol())) {
-                String currencyName = getCurrencyName(assetDto.symbol());
-                String latestPrice = getCurrencyHistoricalPrice(currencyName);
-
-                if (latestPrice != null) {
-                    logger.debug("Price set for {}: {}", assetDto.symbol(), latestPrice);
-                    return new Currency(currencyName, assetDto.symbol(), new BigDecimal(latestPrice));
-                }
-                logger.warn("No historical price found for asset: {}", assetDto.symbol());
-
+    private CompletableFuture<Currency> discoverCurrency(String symbol, Semaphore permits) {
+        CompletableFuture<Currency> discovery = new CompletableFuture<>();
+        CompletableFuture<Currency> inFlight = inFlightDiscoveries.putIfAbsent(symbol, discovery);
+        if (inFlight != null) {
+            logger.debug("Joining in-flight discovery of {}", symbol);
+            return inFlight;
+        }
+        taskExecutor.execute(() -> {
+            try {
+                discovery.complete(fetchAndSaveCurrency(symbol, permits));
+            } catch (Throwable e) {
+                discovery.completeExceptionally(e);
+            } finally {
+                inFlightDiscoveries.remove(symbol, discovery);
             }
-        } catch (Exception e) {
-            logger.error("Error getting price for asset: {}", assetDto.symbol(), e);
+        });
+        return discovery;
+    }
+
+    private Currency fetchAndSaveCurrency(String symbol, Semaphore permits) {
+        if (priceCache.contains(symbol)) {
+            return currencyRepository.findBySymbol(symbol).orElse(null);
+        }
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        try {
+            Currency currency = getCurrencyPrice(symbol);
+            return currency == null ? null : saveCurrency(currency);
+        } finally {
+            permits.release();
         }
-        return null;
     }
 
-    private boolean isCurrencyExist(String symbol) {
-        return currencyRepository.getCurrenciesBySymbol(symbol).isPresent();
+    private Currency saveCurrency(Currency currency) {
+        try {
+            currencyRepository.save(currency);
+            priceCache.put(currency);
+            logger.info("Successfully saved currency {} to the database", currency.getSymbol());
+            return currency;
+        } catch (DataIntegrityViolationException e) {
+            logger.info("Currency {} was registered concurrently", currency.getSymbol());
+            Currency existing = currencyRepository.findBySymbol(currency.getSymbol()).orElseThrow();
+            priceCache.put(existing);
+            return existing;
+        }
     }
 
-    private String getCurrencyName(String symbol) {
-        String searchUrl = "https://api.coincap.io/v2/assets?search=" + symbol + "&limit=1";
-        logger.debug("Requesting currency name for symbol: {}", symbol);
+    private Currency awaitCurrency(String symbol, CompletableFuture<Currency> lookup, long deadline) {
+        try {
+            return lookup.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("Timed out discovering currency: {}", symbol);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.error("Error discovering currency: {}", symbol, e.getCause());
+        }
+        return null;
+    }
 
+    private Currency getCurrencyPrice(String symbol) {
+        logger.debug("Getting price for asset: {}", symbol);
         try {
-            ResponseEntity<String> searchResponse = restTemplate.getForEntity(searchUrl, String.class);
-            if (searchResponse.getStatusCode().is2xxSuccessful() && searchResponse.getBody() != null) {
-                return extractCurrencyName(searchResponse.getBody());
-            }
-            logger.error("Failed to retrieve currency name for symbol: {}. Response code: {}", symbol, searchResponse.getStatusCode());
+            String currencyName = getCurrencyName(symbol);
+            BigDecimal latestPrice = getCurrencyHistoricalPrice(currencyName);
 
+            if (latestPrice != null) {
+                logger.debug("Price set for {}: {}", symbol, latestPrice);
+                return new Currency(currencyName, symbol, latestPrice);
+            }
+            logger.warn("No historical price found for asset: {}", symbol);
         } catch (Exception e) {
-            logger.error("Error retrieving currency name for symbol: {}", symbol, e);
+            logger.error("Error getting price for asset: {}", symbol, e);
         }
         return null;
     }
 
-    private String extractCurrencyName(String searchResponseBody) {
+    private String getCurrencyName(String symbol) {
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            JsonNode root = objectMapper.readTree(searchResponseBody);
-            JsonNode data = root.path("data");
-            if (data.isArray() && data.size() > 0) {
-                return data.get(0).path("name").asText();
-            }
-            logger.warn("No data found in search response");
+            return currencyNameCache.resolve(symbol, this::searchCurrencyName);
         } catch (Exception e) {
-            logger.error("Error extracting currency name from response", e);
+            logger.error("Error retrieving currency name for symbol: {}", symbol, e);
         }
         return null;
     }
 
-    private String getCurrencyHistoricalPrice(String currencyName) {
+    private String searchCurrencyName(String symbol) {
+        logger.debug("Requesting currency name for symbol: {}", symbol);
+        String currencyName = priceProvider.searchName(symbol).block();
+        if (currencyName == null) {
+            logger.warn("No data found in search response for symbol: {}", symbol);
+        }
+        return currencyName;
+    }
+
+    private BigDecimal getCurrencyHistoricalPrice(String currencyName) {
         if (currencyName != null) {
             validateHistoryStart();
             Instant now = Instant.now();
@@ -169,18 +259,13 @@ public class CryptoService {
             long startTimestamp = start.toEpochMilli();
             long endTimestamp = end.toEpochMilli();
 
-            String historyUrl = "https://api.coincap.io/v2/assets/"
-                    + currencyName.toLowerCase()
-                    + "/history?interval=m1&start=" + startTimestamp
-                    + "&end=" + endTimestamp;
-
             logger.debug("Requesting historical price for currency: {}", currencyName);
             try {
-                ResponseEntity<String> historyResponse = restTemplate.getForEntity(historyUrl, String.class);
-                if (historyResponse.getStatusCode().is2xxSuccessful() && historyResponse.getBody() != null) {
-                    return processHistoricalData(historyResponse.getBody());
+                BigDecimal historicalPrice = priceProvider.historicalPrice(currencyName.toLowerCase(), startTimestamp, endTimestamp).block();
+                if (historicalPrice != null) {
+                    return historicalPrice;
                 }
-                logger.error("Failed to retrieve historical price for currency: {}. Response code: {}", currencyName, historyResponse.getStatusCode());
+                logger.warn("No historical data found in the response for currency: {}", currencyName);
             } catch (Exception e) {
                 logger.error("Error retrieving historical price for currency: {}", currencyName, e);
             }
@@ -196,73 +281,39 @@ public class CryptoService {
         }
     }
 
-    private String processHistoricalData(String historyResponseBody) {
-        try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            JsonNode root = objectMapper.readTree(historyResponseBody);
-            JsonNode data = root.path("data");
-            if (data.isArray() && data.size() > 0) {
-                String price = data.get(0).path("priceUsd").asText();
-                return price;
-            }
-            logger.warn("No historical data found in the response");
-        } catch (Exception e) {
-            logger.error("Error processing historical data", e);
-        }
-        return null;
-    }
-
     private ResponseDto calculateResponseStatistics(Wallet wallet) {
-        List<Asset> assets = wallet.getAssets();
+        return valuate(wallet.getAssets(), LocalDateTime.now());
+    }
 
+    /**
+     * Values the assets at the latest cached prices, leaving out assets whose currency has no price.
+     * Expects the symbols to have been resolved by {@link #registerCurrencies}, which counts the lookup.
+     */
+    public ResponseDto valuate(List<Asset> assets, LocalDateTime lastUpdated) {
         if (assets.isEmpty()) {
             throw new NoSuchElementException("No assets available in the wallet");
         }
 
-        BigDecimal totalValue = calculateTotalValue(assets);
-
-        Asset bestAsset = assets.stream()
-                .max(Comparator.comparing(this::calculatePerformance))
-                .orElseThrow();
-
-        Asset worstAsset = assets.stream()
-                .min(Comparator.comparing(this::calculatePerformance))
-                .orElseThrow();
-
-        BigDecimal bestPerformance = calculatePerformance(bestAsset);
-        BigDecimal worstPerformance = calculatePerformance(worstAsset);
-        LocalDateTime lastUpdated = LocalDateTime.now();
-        return new ResponseDto(totalValue,
-                bestAsset.getSymbol(),
-                bestPerformance,
-                worstAsset.getSymbol(),
-                worstPerformance, lastUpdated);
-    }
-
-    private BigDecimal calculatePerformance(Asset asset) {
-        Currency currency = currencyRepository.findBySymbol(asset.getSymbol()).orElseThrow();
-        return currency.getLatestPrice()
-                .subtract(asset.getPrice())
-                .divide(asset.getPrice(), 2, RoundingMode.HALF_UP)
-                .multiply(BigDecimal.valueOf(100));
-    }
-
-    private BigDecimal calculateTotalValue(List<Asset> assets) {
-        List<String> symbols = assets.stream()
+        Map<String, BigDecimal> currencyPriceMap = priceCache.getCachedPrices(assets.stream()
                 .map(Asset::getSymbol)
+                .toList());
+        List<Asset> pricedAssets = assets.stream()
+                .filter(asset -> currencyPriceMap.containsKey(asset.getSymbol()))
+                .toList();
+        List<String> unresolvedSymbols = assets.stream()
+                .map(Asset::getSymbol)
+                .filter(symbol -> !currencyPriceMap.containsKey(symbol))
+                .distinct()
                 .toList();
 
-        List<Currency> currencies = currencyRepository.findBySymbolIn(symbols).orElseThrow();
-
-        Map<String, BigDecimal> currencyPriceMap = currencies.stream()
-                .collect(Collectors.toMap(Currency::getSymbol, Currency::getLatestPrice));
+        if (pricedAssets.isEmpty()) {
+            throw new NoSuchElementException("No prices available for " + unresolvedSymbols);
+        }
+        if (!unresolvedSymbols.isEmpty()) {
+            logger.warn("Excluding unresolved currencies from wallet statistics: {}", unresolvedSymbols);
+        }
 
-        return assets.stream()
-                .map(asset -> {
-                    BigDecimal currencyPrice = currencyPriceMap.get(asset.getSymbol());
-                    return asset.getQuantity().multiply(currencyPrice);
-                })
-                .reduce(BigDecimal.ZERO, BigDecimal::add)
-                .setScale(2, RoundingMode.HALF_UP);
+        return PortfolioStatistics.calculate(pricedAssets, currencyPriceMap)
+                .toResponseDto(lastUpdated, unresolvedSymbols);
     }
 }
@@ -0,0 +1,151 @@
+package com.assignment.cryptowallet.service;
+
+import com.assignment.cryptowallet.model.Currency;
+import com.assignment.cryptowallet.repository.CurrencyRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+
+/**
+ * Snapshot of the currency catalog (name, symbol, latest price, update time) kept in
+ * {@code currency.catalog.path}. It is written every {@code currency.catalog.snapshot-interval} ms and
+ * when the context closes, and loaded in bulk while the context starts, before the web server accepts
+ * requests, so the first refresh and wallet registrations find their currencies already priced.
+ */
+@Component
+public class CurrencyCatalog {
+    static final int MAGIC = 0x43434154;
+    static final int VERSION = 1;
+    private static final Logger logger = LoggerFactory.getLogger(CurrencyCatalog.class);
+    private final CurrencyRepository currencyRepository;
+    private final PriceCache priceCache;
+    private final boolean enabled;
+    private final Path path;
+
+    @Autowired
+    public CurrencyCatalog(CurrencyRepository currencyRepository,
+                           PriceCache priceCache,
+                           @Value("${currency.catalog.enabled:false}") boolean enabled,
+                           @Value("${currency.catalog.path:data/currency-catalog.bin}") Path path) {
+        this.currencyRepository = currencyRepository;
+        this.priceCache = priceCache;
+        this.enabled = enabled;
+        this.path = path;
+    }
+
+    @PostConstruct
+    public void load() {
+        if (!enabled || !Files.exists(path)) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        List<Currency> snapshot;
+        try {
+            snapshot = read();
+        } catch (IOException e) {
+            logger.warn("Ignoring unreadable currency catalog {}: {}", path, e.getMessage());
+            return;
+        }
+        Set<String> existing = new HashSet<>();
+        currencyRepository.findBySymbolIn(snapshot.stream().map(Currency::getSymbol).toList()).orElse(List.of())
+                .forEach(currency -> existing.add(currency.getSymbol()));
+        List<Currency> missing = snapshot.stream()
+                .filter(currency -> !existing.contains(currency.getSymbol()))
+                .toList();
+        if (!missing.isEmpty()) {
+            currencyRepository.saveAll(missing);
+            priceCache.putAll(missing);
+        }
+        logger.info("Loaded {} of {} catalog currencies from {} in {} ms",
+                missing.size(), snapshot.size(), path, System.currentTimeMillis() - start);
+    }
+
+    @Scheduled(fixedDelayString = "${currency.catalog.snapshot-interval:300000}",
+            initialDelayString = "${currency.catalog.snapshot-interval:300000}")
+    public void snapshot() {
+        if (enabled) {
+            save();
+        }
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void onContextClosed() {
+        snapshot();
+    }
+
+    synchronized void save() {
+        try {
+            List<Currency> currencies = currencyRepository.findAll();
+            Path parent = path.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path temp = Files.createTempFile(parent, "currency-catalog", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                write(out, currencies);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logger.debug("Saved {} currencies to {}", currencies.size(), path);
+        } catch (Exception e) {
+            logger.warn("Failed to save currency catalog to {}: {}", path, e.getMessage());
+        }
+    }
+
+    private static void write(DataOutputStream out, List<Currency> currencies) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(currencies.size());
+        for (Currency currency : currencies) {
+            writeNullable(out, currency.getName());
+            out.writeUTF(currency.getSymbol());
+            writeNullable(out, currency.getLatestPrice() == null ? null : currency.getLatestPrice().toPlainString());
+            out.writeLong(currency.getUpdateTime() == null ? Long.MIN_VALUE
+                    : currency.getUpdateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+    }
+
+    private List<Currency> read() throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("not a currency catalog");
+            }
+            int count = in.readInt();
+            List<Currency> currencies = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String name = readNullable(in);
+                String symbol = in.readUTF();
+                String price = readNullable(in);
+                long updateMillis = in.readLong();
+                currencies.add(new Currency(name, symbol, price == null ? null : new BigDecimal(price),
+                        updateMillis == Long.MIN_VALUE ? null
+                                : LocalDateTime.ofInstant(Instant.ofEpochMilli(updateMillis), ZoneId.systemDefault())));
+            }
+            return currencies;
+        }
+    }
+
+    private static void writeNullable(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullable(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,114 @@
+package com.assignment.cryptowallet.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded symbol to CoinCap name cache. Resolved names live for {@code currency.name-cache.ttl},
+ * symbols CoinCap does not know are remembered for the shorter {@code currency.name-cache.negative-ttl}.
+ * With {@code currency.name-cache.preload-limit} set, the most relevant names are loaded from the
+ * {@link PriceProvider} once the application is ready.
+ */
+@Component
+public class CurrencyNameCache {
+    private static final Logger logger = LoggerFactory.getLogger(CurrencyNameCache.class);
+
+    private record Entry(String name, long expiresAt) {
+    }
+
+    private final PriceProvider priceProvider;
+    private final long ttl;
+    private final long negativeTtl;
+    private final int maxSize;
+    private final int preloadLimit;
+    private final Clock clock;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @Autowired
+    public CurrencyNameCache(PriceProvider priceProvider,
+                             @Value("${currency.name-cache.ttl:86400000}") long ttl,
+                             @Value("${currency.name-cache.negative-ttl:60000}") long negativeTtl,
+                             @Value("${currency.name-cache.max-size:10000}") int maxSize,
+                             @Value("${currency.name-cache.preload-limit:0}") int preloadLimit) {
+        this(priceProvider, ttl, negativeTtl, maxSize, preloadLimit, Clock.systemUTC());
+    }
+
+    CurrencyNameCache(PriceProvider priceProvider, long ttl, long negativeTtl, int maxSize, int preloadLimit, Clock clock) {
+        this.priceProvider = priceProvider;
+        this.ttl = ttl;
+        this.negativeTtl = negativeTtl;
+        this.maxSize = maxSize;
+        this.preloadLimit = preloadLimit;
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        if (preloadLimit <= 0) {
+            return;
+        }
+        priceProvider.fetchSymbolNames(preloadLimit).subscribe(names -> {
+            names.forEach((symbol, name) -> put(symbol, name, ttl));
+            logger.info("Preloaded {} currency names", names.size());
+        }, e -> logger.error("Failed to preload currency names: {}", e.getMessage()));
+    }
+
+    /**
+     * Returns the cached name of {@code symbol}, calling {@code loader} on a miss. A {@code null} name is
+     * cached as a miss; an exception from the loader is propagated and nothing is cached.
+     */
+    public String resolve(String symbol, Function<String, String> loader) {
+        Entry entry = entries.get(symbol);
+        if (entry != null && entry.expiresAt() > clock.millis()) {
+            hits.increment();
+            return entry.name();
+        }
+        misses.increment();
+        String name = loader.apply(symbol);
+        put(symbol, name, name != null ? ttl : negativeTtl);
+        return name;
+    }
+
+    private void put(String symbol, String name, long timeToLive) {
+        entries.put(symbol, new Entry(name, clock.millis() + timeToLive));
+        if (entries.size() > maxSize) {
+            evict();
+        }
+    }
+
+    private void evict() {
+        long now = clock.millis();
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+        Iterator<String> symbols = entries.keySet().iterator();
+        while (entries.size() > maxSize && symbols.hasNext()) {
+            symbols.next();
+            symbols.remove();
+        }
+    }
+
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+}
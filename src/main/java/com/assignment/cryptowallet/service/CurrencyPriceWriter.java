@@ -0,0 +1,60 @@
+package com.assignment.cryptowallet.service;
+
+import com.assignment.cryptowallet.dto.PriceWriteReport;
+import com.assignment.cryptowallet.model.Currency;
+import com.assignment.cryptowallet.repository.CurrencyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Persists a refresh cycle's prices in one transaction. The rows are loaded with a single
+ * {@code findAllById}, modified in place and flushed, so Hibernate sends the UPDATEs as
+ * JDBC batches of {@code hibernate.jdbc.batch_size}.
+ */
+@Service
+public class CurrencyPriceWriter {
+    private static final Logger logger = LoggerFactory.getLogger(CurrencyPriceWriter.class);
+    private final CurrencyRepository currencyRepository;
+
+    @Autowired
+    public CurrencyPriceWriter(CurrencyRepository currencyRepository) {
+        this.currencyRepository = currencyRepository;
+    }
+
+    @Transactional
+    public PriceWriteReport writePrices(List<Currency> currencies) {
+        long start = System.nanoTime();
+        Map<Long, Currency> updates = currencies.stream()
+                .filter(currency -> currency.getId() != null)
+                .collect(Collectors.toMap(Currency::getId, Function.identity(), (first, second) -> second));
+        if (updates.isEmpty()) {
+            return new PriceWriteReport(0, 0);
+        }
+
+        List<Currency> managed = currencyRepository.findAllById(updates.keySet());
+        int rowsWritten = 0;
+        for (Currency currency : managed) {
+            Currency update = updates.get(currency.getId());
+            if (!Objects.equals(currency.getLatestPrice(), update.getLatestPrice())
+                    || !Objects.equals(currency.getUpdateTime(), update.getUpdateTime())) {
+                currency.setLatestPrice(update.getLatestPrice());
+                currency.setUpdateTime(update.getUpdateTime());
+                rowsWritten++;
+            }
+        }
+        currencyRepository.flush();
+
+        PriceWriteReport report = new PriceWriteReport(rowsWritten, (System.nanoTime() - start) / 1_000_000);
+        logger.info("Wrote {} currency rows in {} ms", report.rowsWritten(), report.elapsedMillis());
+        return report;
+    }
+}
@@ -0,0 +1,393 @@
+package com.assignment.cryptowallet.service;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+
+/**
+ * Scaled-long arithmetic for the valuation hot path. Prices and quantities are longs in units of
+ * 10^-{@value #SCALE}, and quantity × price products are summed exactly in 128 bits by {@link Total}.
+ * A value with more than {@value #SCALE} decimals or outside the long range converts to
+ * {@link #UNREPRESENTABLE}; callers then use BigDecimal for that value only. Results are equal, scale
+ * included, to the BigDecimal arithmetic of {@link PortfolioStatistics}.
+ * <p>
+ * Latest prices may carry up to 2 × {@value #SCALE} decimals, as CoinCap's 16-decimal quotes do. {@link #toPrice}
+ * splits such a price into its 10^-{@value #SCALE} units and the remaining digits, which {@link Total} sums in a
+ * second 128-bit accumulator and {@link #performance(long, long, long)} divides exactly, so no digit is dropped.
+ */
+final class FixedPoint {
+    static final int SCALE = PriceHistoryStore.PRICE_SCALE;
+    static final long UNREPRESENTABLE = Long.MIN_VALUE;
+    private static final long ONE = 100_000_000L;
+    private static final long MAX_PERCENT = Long.MAX_VALUE / 100;
+    private static final long[] POWERS_OF_TEN = new long[19];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    private FixedPoint() {
+    }
+
+    static long toScaled(BigDecimal value) {
+        if (value == null) {
+            return UNREPRESENTABLE;
+        }
+        if (value.scale() > SCALE) {
+            value = value.stripTrailingZeros();
+            if (value.scale() > SCALE) {
+                return UNREPRESENTABLE;
+            }
+        }
+        BigInteger unscaled = value.unscaledValue();
+        if (unscaled.bitLength() > 63) {
+            return UNREPRESENTABLE;
+        }
+        long unscaledLong = unscaled.longValue();
+        int shift = SCALE - value.scale();
+        if (shift >= POWERS_OF_TEN.length) {
+            return unscaledLong == 0 ? 0 : UNREPRESENTABLE;
+        }
+        long scaled = unscaledLong * POWERS_OF_TEN[shift];
+        if (Math.multiplyHigh(unscaledLong, POWERS_OF_TEN[shift]) != scaled >> 63) {
+            return UNREPRESENTABLE;
+        }
+        return scaled;
+    }
+
+    /**
+     * Splits a latest price into whole units of 10^-{@value #SCALE}, rounded down, and the remaining digits in
+     * units of 10^-{@code 2 * SCALE}. The units are {@link #UNREPRESENTABLE} if the price has more than
+     * 2 × {@value #SCALE} decimals or does not fit.
+     */
+    static Price toPrice(BigDecimal price) {
+        long units = toScaled(price);
+        if (units != UNREPRESENTABLE || price == null) {
+            return new Price(units, 0);
+        }
+        BigDecimal value = price.stripTrailingZeros();
+        int extraDigits = value.scale() - SCALE;
+        if (extraDigits <= 0 || extraDigits > SCALE) {
+            return new Price(UNREPRESENTABLE, 0);
+        }
+        BigInteger unscaled = value.unscaledValue();
+        long divisor = POWERS_OF_TEN[extraDigits];
+        long fractionFactor = POWERS_OF_TEN[SCALE - extraDigits];
+        if (unscaled.bitLength() <= 63) {
+            long unscaledLong = unscaled.longValue();
+            return new Price(Math.floorDiv(unscaledLong, divisor), Math.floorMod(unscaledLong, divisor) * fractionFactor);
+        }
+        BigInteger[] parts = unscaled.divideAndRemainder(BigInteger.valueOf(divisor));
+        if (parts[1].signum() < 0) {
+            parts[0] = parts[0].subtract(BigInteger.ONE);
+            parts[1] = parts[1].add(BigInteger.valueOf(divisor));
+        }
+        if (parts[0].bitLength() > 63) {
+            return new Price(UNREPRESENTABLE, 0);
+        }
+        return new Price(parts[0].longValue(), parts[1].longValue() * fractionFactor);
+    }
+
+    /**
+     * {@link PortfolioStatistics#performance} as a whole number of percent: the change rounded half up to
+     * hundredths of the purchase price. {@link #UNREPRESENTABLE} if an input is, if the purchase price is
+     * zero, or on overflow.
+     */
+    static long performance(long latestPrice, long purchasePrice) {
+        if (latestPrice == UNREPRESENTABLE || purchasePrice == UNREPRESENTABLE || purchasePrice == 0) {
+            return UNREPRESENTABLE;
+        }
+        long difference = latestPrice - purchasePrice;
+        if (((latestPrice ^ purchasePrice) & (latestPrice ^ difference)) < 0) {
+            return UNREPRESENTABLE;
+        }
+        long numerator = difference * 100;
+        if (Math.multiplyHigh(difference, 100) != numerator >> 63) {
+            return UNREPRESENTABLE;
+        }
+        long quotient = numerator / purchasePrice;
+        long remainder = Math.abs(numerator % purchasePrice);
+        if (remainder != 0 && remainder >= Math.abs(purchasePrice) - remainder) {
+            quotient += (numerator ^ purchasePrice) < 0 ? -1 : 1;
+        }
+        return Math.abs(quotient) > MAX_PERCENT ? UNREPRESENTABLE : quotient;
+    }
+
+    /**
+     * {@link #performance(long, long)} of a latest price with {@code latestFraction} further digits from
+     * {@link #toPrice}. Twice the change in units of 10^-{@code 2 * SCALE}, times 100, is divided by the purchase
+     * price in 128 bits; the half-up rounding to hundredths is then exact integer arithmetic. {@link #UNREPRESENTABLE}
+     * for a purchase price that is not positive, or on overflow.
+     */
+    static long performance(long latestPrice, long latestFraction, long purchasePrice) {
+        if (latestFraction == 0) {
+            return performance(latestPrice, purchasePrice);
+        }
+        if (latestPrice == UNREPRESENTABLE || purchasePrice == UNREPRESENTABLE || purchasePrice <= 0) {
+            return UNREPRESENTABLE;
+        }
+        long difference = latestPrice - purchasePrice;
+        if (((latestPrice ^ purchasePrice) & (latestPrice ^ difference)) < 0) {
+            return UNREPRESENTABLE;
+        }
+        long factor = 200 * ONE;
+        long high = Math.multiplyHigh(difference, factor);
+        long low = difference * factor;
+        long sumLow = low + 200 * latestFraction;
+        high += Long.compareUnsigned(sumLow, low) < 0 ? 1 : 0;
+        low = sumLow;
+        boolean negative = high < 0;
+        if (negative) {
+            high = ~high + (low == 0 ? 1 : 0);
+            low = -low;
+        }
+        if (Long.compareUnsigned(high, purchasePrice) >= 0) {
+            return UNREPRESENTABLE;
+        }
+        long doubled = divideUnsigned(high, low, purchasePrice);
+        if (doubled < 0 || doubled > Long.MAX_VALUE - ONE) {
+            return UNREPRESENTABLE;
+        }
+        long percent = (doubled + ONE) / (2 * ONE);
+        if (percent > MAX_PERCENT) {
+            return UNREPRESENTABLE;
+        }
+        return negative ? -percent : percent;
+    }
+
+    /**
+     * The unsigned 128-bit value {@code high:low} divided by {@code divisor}, rounded down; {@code high} must be
+     * unsigned below {@code divisor} so that the quotient fits 64 bits (Hacker's Delight, divlu).
+     */
+    static long divideUnsigned(long high, long low, long divisor) {
+        long base = 1L << 32;
+        int shift = Long.numberOfLeadingZeros(divisor);
+        divisor <<= shift;
+        long divisorHigh = divisor >>> 32;
+        long divisorLow = divisor & 0xFFFFFFFFL;
+        long numerator32 = (high << shift) | (shift == 0 ? 0 : low >>> (64 - shift));
+        long numerator10 = low << shift;
+        long numerator1 = numerator10 >>> 32;
+        long numerator0 = numerator10 & 0xFFFFFFFFL;
+
+        long quotient1 = Long.divideUnsigned(numerator32, divisorHigh);
+        long remainder = numerator32 - quotient1 * divisorHigh;
+        while (Long.compareUnsigned(quotient1, base) >= 0
+                || Long.compareUnsigned(quotient1 * divisorLow, base * remainder + numerator1) > 0) {
+            quotient1--;
+            remainder += divisorHigh;
+            if (Long.compareUnsigned(remainder, base) >= 0) {
+                break;
+            }
+        }
+        long numerator21 = numerator32 * base + numerator1 - quotient1 * divisor;
+        long quotient0 = Long.divideUnsigned(numerator21, divisorHigh);
+        remainder = numerator21 - quotient0 * divisorHigh;
+        while (Long.compareUnsigned(quotient0, base) >= 0
+                || Long.compareUnsigned(quotient0 * divisorLow, base * remainder + numerator0) > 0) {
+            quotient0--;
+            remainder += divisorHigh;
+            if (Long.compareUnsigned(remainder, base) >= 0) {
+                break;
+            }
+        }
+        return quotient1 * base + quotient0;
+    }
+
+    /**
+     * The BigDecimal {@link PortfolioStatistics#performance} returns for {@code percent}.
+     */
+    static BigDecimal percent(long percent) {
+        return BigDecimal.valueOf(percent * 100, 2);
+    }
+
+    private static BigDecimal toBigDecimal(long high, long low, int scale) {
+        if (high == low >> 63) {
+            return BigDecimal.valueOf(low, scale);
+        }
+        byte[] bytes = new byte[16];
+        for (int i = 0; i < 8; i++) {
+            bytes[i] = (byte) (high >>> (56 - 8 * i));
+            bytes[i + 8] = (byte) (low >>> (56 - 8 * i));
+        }
+        return new BigDecimal(new BigInteger(bytes), scale);
+    }
+
+    /**
+     * A latest price from {@link #toPrice}: {@code units} of 10^-{@value #SCALE} plus {@code fraction} units of
+     * 10^-{@code 2 * SCALE}, from 0 to 10^{@value #SCALE} - 1.
+     */
+    record Price(long units, long fraction) {
+    }
+
+    /**
+     * Exact running sum of quantity × price products in units of 10^-{@code 2 * SCALE}, with the products of
+     * price fractions in units of 10^-{@code 3 * SCALE}. Products of unrepresentable inputs, and a fixed-point
+     * part when it would overflow 128 bits, are kept in a BigDecimal remainder.
+     */
+    static final class Total {
+        private final Sum units = new Sum(2 * SCALE);
+        private final Sum fractions = new Sum(3 * SCALE);
+        private BigDecimal remainder = BigDecimal.ZERO;
+
+        void add(long quantity, long price) {
+            accumulate(units, Math.multiplyHigh(quantity, price), quantity * price);
+        }
+
+        void add(long quantity, long price, long fraction) {
+            add(quantity, price);
+            if (fraction != 0) {
+                accumulate(fractions, Math.multiplyHigh(quantity, fraction), quantity * fraction);
+            }
+        }
+
+        void subtract(long quantity, long price) {
+            subtract(units, quantity, price);
+        }
+
+        void subtract(long quantity, long price, long fraction) {
+            subtract(quantity, price);
+            if (fraction != 0) {
+                subtract(fractions, quantity, fraction);
+            }
+        }
+
+        void add(BigDecimal value) {
+            remainder = remainder.add(value);
+        }
+
+        void subtract(BigDecimal value) {
+            remainder = remainder.subtract(value);
+        }
+
+        void clear() {
+            units.clear();
+            fractions.clear();
+            remainder = BigDecimal.ZERO;
+        }
+
+        BigDecimal toBigDecimal() {
+            BigDecimal fixed = units.toBigDecimal();
+            if (!fractions.isZero()) {
+                fixed = fixed.add(fractions.toBigDecimal());
+            }
+            return remainder.signum() == 0 ? fixed : fixed.add(remainder);
+        }
+
+        private void subtract(Sum sum, long quantity, long price) {
+            long productLow = quantity * price;
+            long productHigh = Math.multiplyHigh(quantity, price);
+            accumulate(sum, ~productHigh + (productLow == 0 ? 1 : 0), -productLow);
+        }
+
+        private void accumulate(Sum sum, long otherHigh, long otherLow) {
+            if (!sum.add(otherHigh, otherLow)) {
+                remainder = remainder.add(sum.toBigDecimal())
+                        .add(FixedPoint.toBigDecimal(otherHigh, otherLow, sum.scale));
+                sum.clear();
+            }
+        }
+    }
+
+    /**
+     * A signed 128-bit sum in units of 10^-{@code scale}.
+     */
+    private static final class Sum {
+        private final int scale;
+        private long high;
+        private long low;
+
+        Sum(int scale) {
+            this.scale = scale;
+        }
+
+        /**
+         * Adds {@code otherHigh:otherLow}; returns {@code false}, leaving the sum unchanged, on overflow.
+         */
+        boolean add(long otherHigh, long otherLow) {
+            long sumLow = low + otherLow;
+            long carry = Long.compareUnsigned(sumLow, low) < 0 ? 1 : 0;
+            long sumHigh = high + otherHigh;
+            boolean overflow = ((high ^ sumHigh) & (otherHigh ^ sumHigh)) < 0
+                    || (carry == 1 && sumHigh == Long.MAX_VALUE);
+            if (overflow) {
+                return false;
+            }
+            high = sumHigh + carry;
+            low = sumLow;
+            return true;
+        }
+
+        boolean isZero() {
+            return high == 0 && low == 0;
+        }
+
+        void clear() {
+            high = 0;
+            low = 0;
+        }
+
+        BigDecimal toBigDecimal() {
+            return FixedPoint.toBigDecimal(high, low, scale);
+        }
+    }
+
+    /**
+     * Per-asset performances as whole percent, with the BigDecimal result kept only for assets whose
+     * performance is not representable.
+     */
+    static final class Performances {
+        private final long[] percents;
+        private BigDecimal[] decimals;
+
+        Performances(int size) {
+            percents = new long[size];
+        }
+
+        void set(int i, long latestPrice, long purchasePrice, BigDecimal latestDecimal, BigDecimal purchaseDecimal) {
+            set(i, latestPrice, 0, purchasePrice, latestDecimal, purchaseDecimal);
+        }
+
+        void set(int i, long latestPrice, long latestFraction, long purchasePrice,
+                 BigDecimal latestDecimal, BigDecimal purchaseDecimal) {
+            long percent = performance(latestPrice, latestFraction, purchasePrice);
+            percents[i] = percent;
+            if (percent == UNREPRESENTABLE) {
+                if (decimals == null) {
+                    decimals = new BigDecimal[percents.length];
+                }
+                decimals[i] = PortfolioStatistics.performance(latestDecimal, purchaseDecimal);
+            }
+        }
+
+        BigDecimal get(int i) {
+            return percents[i] == UNREPRESENTABLE ? decimals[i] : FixedPoint.percent(percents[i]);
+        }
+
+        long percent(int i) {
+            return percents[i];
+        }
+
+        /**
+         * Compares performance {@code i} with {@code j}.
+         */
+        int compare(int i, int j) {
+            if (percents[i] != UNREPRESENTABLE && percents[j] != UNREPRESENTABLE) {
+                return Long.compare(percents[i], percents[j]);
+            }
+            return get(i).compareTo(get(j));
+        }
+
+        /**
+         * Compares performance {@code i} with an earlier value of {@link #percent} and {@link #get}.
+         */
+        int compare(int i, long percent, BigDecimal decimal) {
+            if (percents[i] != UNREPRESENTABLE && percent != UNREPRESENTABLE) {
+                return Long.compare(percents[i], percent);
+            }
+            return get(i).compareTo(percent == UNREPRESENTABLE ? decimal : FixedPoint.percent(percent));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.assignment.cryptowallet.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Sends each request to the first provider and, if it has not answered after {@code hedgeDelay} or has
+ * failed, to the next one (the n-th provider after n delays at the latest), taking whichever answers
+ * first; the others are cancelled. An empty answer
+ * (unknown asset) counts as an answer. With a single provider requests go straight to it.
+ * <p>
+ * There is no fallback to earlier prices: a batch that every provider fails is left out of the refresh,
+ * so the cached price keeps its update time and its {@code price.refresh.lag} keeps growing.
+ */
+public class HedgedPriceProvider implements PriceProvider {
+    private static final Logger logger = LoggerFactory.getLogger(HedgedPriceProvider.class);
+    private final List<PriceProvider> providers;
+    private final Duration hedgeDelay;
+    private final int maxConcurrency;
+
+    public HedgedPriceProvider(List<PriceProvider> providers, Duration hedgeDelay, int maxConcurrency) {
+        if (providers.isEmpty()) {
+            throw new IllegalArgumentException("at least one price provider is required");
+        }
+        this.providers = List.copyOf(providers);
+        this.hedgeDelay = hedgeDelay;
+        this.maxConcurrency = maxConcurrency;
+    }
+
+    @Override
+    public String name() {
+        return "hedged" + providers.stream().map(PriceProvider::name).toList();
+    }
+
+    @Override
+    public Mono<BigDecimal> fetchPrice(String id) {
+        return hedge(provider -> provider.fetchPrice(id));
+    }
+
+    @Override
+    public Mono<Map<String, BigDecimal>> fetchBatch(List<String> ids) {
+        return hedge(provider -> provider.fetchBatch(ids));
+    }
+
+    @Override
+    public Mono<Map<String, BigDecimal>> fetchPrices(List<String> ids, int batchSize) {
+        if (providers.size() == 1) {
+            return providers.get(0).fetchPrices(ids, batchSize);
+        }
+        List<List<String>> batches = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += batchSize) {
+            batches.add(ids.subList(i, Math.min(i + batchSize, ids.size())));
+        }
+        return Flux.fromIterable(batches)
+                .flatMap(batch -> fetchBatch(batch)
+                        .onErrorResume(e -> {
+                            logger.error("Failed to fetch prices for {} from any provider: {}", batch, e.getMessage());
+                            return Mono.just(Map.of());
+                        }), maxConcurrency)
+                .flatMapIterable(Map::entrySet)
+                .collectMap(Map.Entry::getKey, Map.Entry::getValue);
+    }
+
+    @Override
+    public Mono<String> searchName(String symbol) {
+        return hedge(provider -> provider.searchName(symbol));
+    }
+
+    @Override
+    public Mono<Map<String, String>> fetchSymbolNames(int limit) {
+        return hedge(provider -> provider.fetchSymbolNames(limit));
+    }
+
+    @Override
+    public Mono<BigDecimal> historicalPrice(String id, long start, long end) {
+        return hedge(provider -> provider.historicalPrice(id, start, end));
+    }
+
+    private <T> Mono<T> hedge(Function<PriceProvider, Mono<T>> request) {
+        if (providers.size() == 1) {
+            return request.apply(providers.get(0));
+        }
+        return Mono.defer(() -> {
+            List<Mono<Optional<T>>> attempts = new ArrayList<>();
+            Sinks.Empty<Void> previousFailed = null;
+            for (int i = 0; i < providers.size(); i++) {
+                PriceProvider provider = providers.get(i);
+                Sinks.Empty<Void> failed = Sinks.empty();
+                Mono<Void> start = previousFailed == null ? Mono.empty()
+                        : Mono.firstWithSignal(Mono.delay(hedgeDelay.multipliedBy(i)).then(), previousFailed.asMono());
+                attempts.add(start.then(Mono.defer(() -> request.apply(provider)))
+                        .map(Optional::of)
+                        .defaultIfEmpty(Optional.empty())
+                        .doOnError(e -> {
+                            logger.debug("Price provider {} failed: {}", provider.name(), e.getMessage());
+                            failed.tryEmitEmpty();
+                        }));
+                previousFailed = failed;
+            }
+            return Mono.firstWithValue(attempts)
+                    .onErrorMap(e -> Exceptions.unwrapMultiple(e.getCause() != null ? e.getCause() : e).get(0))
+                    .flatMap(Mono::justOrEmpty);
+        });
+    }
+}
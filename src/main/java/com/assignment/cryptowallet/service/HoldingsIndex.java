@@ -0,0 +1,296 @@
+package com.assignment.cryptowallet.service;
+
+import com.assignment.cryptowallet.model.Asset;
+import com.assignment.cryptowallet.repository.AssetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Every wallet's holdings in primitive columns (wallet id, symbol id, quantity and cost basis as
+ * {@link FixedPoint} longs, 28 bytes per holding) for full-book aggregations without loading entities.
+ * Built from {@link AssetRepository#streamHoldings} at startup and appended to as wallets are registered;
+ * a wallet's holdings are contiguous. Wallets registered while a rebuild streams are replayed onto the
+ * rebuilt columns before they are swapped in, unless the stream already returned them. Quantities or prices
+ * that do not fit a long are kept as BigDecimal on the side. Readers work on an immutable view and never
+ * block registrations.
+ */
+@Component
+public class HoldingsIndex {
+    private static final Logger logger = LoggerFactory.getLogger(HoldingsIndex.class);
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int QUANTITY = 0;
+    private static final int COST = 1;
+    private final AssetRepository assetRepository;
+    private final PriceCache priceCache;
+    private Columns rows = new Columns(INITIAL_CAPACITY);
+    private volatile Columns columns = rows.view();
+    private List<WalletRegisteredEvent> registeredDuringRebuild;
+
+    @Autowired
+    public HoldingsIndex(AssetRepository assetRepository, PriceCache priceCache) {
+        this.assetRepository = assetRepository;
+        this.priceCache = priceCache;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        Columns rebuilt = new Columns(INITIAL_CAPACITY);
+        synchronized (this) {
+            registeredDuringRebuild = new ArrayList<>();
+        }
+        try {
+            try (Stream<AssetRepository.Holding> holdings = assetRepository.streamHoldings()) {
+                holdings.forEach(holding -> rebuilt.append(holding.getWalletId(), holding.getSymbol(),
+                        holding.getQuantity(), holding.getPrice()));
+            }
+            synchronized (this) {
+                int streamed = rebuilt.size;
+                for (WalletRegisteredEvent event : registeredDuringRebuild) {
+                    if (!rebuilt.holdsWallet(event.walletId(), streamed)) {
+                        append(rebuilt, event);
+                    }
+                }
+                rows = rebuilt;
+                columns = rebuilt.view();
+            }
+        } finally {
+            synchronized (this) {
+                registeredDuringRebuild = null;
+            }
+        }
+        logger.info("Indexed {} holdings of {} symbols in {} ms",
+                rebuilt.size, rebuilt.symbolCount, System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onWalletRegistered(WalletRegisteredEvent event) {
+        append(rows, event);
+        columns = rows.view();
+        if (registeredDuringRebuild != null) {
+            registeredDuringRebuild.add(event);
+        }
+    }
+
+    /**
+     * Market value of all holdings per symbol at the cached latest prices, rounded like wallet totals.
+     * Symbols without a price are left out.
+     */
+    public Map<String, BigDecimal> assetsUnderManagement() {
+        Columns view = columns;
+        BigDecimal[] decimalPrices = latestPrices(view);
+        FixedPoint.Price[] prices = scaled(decimalPrices);
+        FixedPoint.Total[] totals = totals(view.symbolCount);
+        for (int row = 0; row < view.size; row++) {
+            int symbol = view.symbolIds[row];
+            if (decimalPrices[symbol] != null) {
+                addValue(totals[symbol], view, row, prices[symbol].units(), prices[symbol].fraction(), decimalPrices[symbol]);
+            }
+        }
+        return bySymbol(view, totals, decimalPrices);
+    }
+
+    /**
+     * Total purchase cost (quantity × purchase price) of all holdings per symbol.
+     */
+    public Map<String, BigDecimal> costBasis() {
+        Columns view = columns;
+        FixedPoint.Total[] totals = totals(view.symbolCount);
+        for (int row = 0; row < view.size; row++) {
+            long cost = view.costs[row];
+            BigDecimal decimalCost = cost == FixedPoint.UNREPRESENTABLE ? view.oversized.get(row)[COST] : null;
+            addValue(totals[view.symbolIds[row]], view, row, cost, 0, decimalCost);
+        }
+        return bySymbol(view, totals, null);
+    }
+
+    /**
+     * The {@code limit} most valuable wallets at the cached latest prices, highest first; unpriced holdings
+     * count as zero and equal values keep the lower wallet id first.
+     */
+    public List<WalletValue> topWallets(int limit) {
+        Columns view = columns;
+        BigDecimal[] decimalPrices = latestPrices(view);
+        FixedPoint.Price[] prices = scaled(decimalPrices);
+        Comparator<WalletValue> order = Comparator.comparing(WalletValue::value)
+                .thenComparing(WalletValue::walletId, Comparator.reverseOrder());
+        PriorityQueue<WalletValue> top = new PriorityQueue<>(Math.max(1, limit + 1), order);
+        FixedPoint.Total total = new FixedPoint.Total();
+        int row = 0;
+        while (row < view.size && limit > 0) {
+            long walletId = view.walletIds[row];
+            total.clear();
+            for (; row < view.size && view.walletIds[row] == walletId; row++) {
+                int symbol = view.symbolIds[row];
+                if (decimalPrices[symbol] != null) {
+                    addValue(total, view, row, prices[symbol].units(), prices[symbol].fraction(), decimalPrices[symbol]);
+                }
+            }
+            top.add(new WalletValue(walletId, total.toBigDecimal().setScale(2, RoundingMode.HALF_UP)));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<WalletValue> result = new ArrayList<>(top);
+        result.sort(order.reversed());
+        return result;
+    }
+
+    public int size() {
+        return columns.size;
+    }
+
+    private static void append(Columns target, WalletRegisteredEvent event) {
+        for (Asset asset : event.assets()) {
+            target.append(event.walletId(), asset.getSymbol(), asset.getQuantity(), asset.getPrice());
+        }
+    }
+
+    private BigDecimal[] latestPrices(Columns view) {
+        BigDecimal[] prices = new BigDecimal[view.symbolCount];
+        for (int symbol = 0; symbol < view.symbolCount; symbol++) {
+            prices[symbol] = priceCache.getPrice(view.symbols[symbol]).orElse(null);
+        }
+        return prices;
+    }
+
+    private static FixedPoint.Price[] scaled(BigDecimal[] values) {
+        FixedPoint.Price[] scaled = new FixedPoint.Price[values.length];
+        for (int i = 0; i < values.length; i++) {
+            scaled[i] = FixedPoint.toPrice(values[i]);
+        }
+        return scaled;
+    }
+
+    private static FixedPoint.Total[] totals(int count) {
+        FixedPoint.Total[] totals = new FixedPoint.Total[count];
+        for (int i = 0; i < count; i++) {
+            totals[i] = new FixedPoint.Total();
+        }
+        return totals;
+    }
+
+    /**
+     * Rounded totals by symbol name, leaving out the symbols without a {@code price} when prices are given.
+     */
+    private static Map<String, BigDecimal> bySymbol(Columns view, FixedPoint.Total[] totals, BigDecimal[] prices) {
+        Map<String, BigDecimal> result = new HashMap<>();
+        for (int symbol = 0; symbol < view.symbolCount; symbol++) {
+            if (prices == null || prices[symbol] != null) {
+                result.put(view.symbols[symbol], totals[symbol].toBigDecimal().setScale(2, RoundingMode.HALF_UP));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Adds the quantity of {@code row} times {@code price} plus {@code fraction} to {@code total};
+     * {@code decimalPrice} is only needed when {@code price} is {@link FixedPoint#UNREPRESENTABLE} or
+     * {@code fraction} is not zero.
+     */
+    private static void addValue(FixedPoint.Total total, Columns view, int row, long price, long fraction,
+                                 BigDecimal decimalPrice) {
+        long quantity = view.quantities[row];
+        if (quantity != FixedPoint.UNREPRESENTABLE && price != FixedPoint.UNREPRESENTABLE) {
+            total.add(quantity, price, fraction);
+            return;
+        }
+        BigDecimal decimalQuantity = quantity == FixedPoint.UNREPRESENTABLE
+                ? view.oversized.get(row)[QUANTITY]
+                : BigDecimal.valueOf(quantity, FixedPoint.SCALE);
+        total.add(decimalQuantity.multiply(price == FixedPoint.UNREPRESENTABLE || fraction != 0
+                ? decimalPrice
+                : BigDecimal.valueOf(price, FixedPoint.SCALE)));
+    }
+
+    public record WalletValue(long walletId, BigDecimal value) {
+    }
+
+    /**
+     * Column arrays with the number of rows visible through this instance. Appending writes past the
+     * rows of every published {@link #view} or into grown copies, so a view's rows never change.
+     */
+    private static final class Columns {
+        private long[] walletIds;
+        private int[] symbolIds;
+        private long[] quantities;
+        private long[] costs;
+        private String[] symbols;
+        private final Map<String, Integer> symbolIndex;
+        private final Map<Integer, BigDecimal[]> oversized;
+        private int size;
+        private int symbolCount;
+
+        Columns(int capacity) {
+            walletIds = new long[capacity];
+            symbolIds = new int[capacity];
+            quantities = new long[capacity];
+            costs = new long[capacity];
+            symbols = new String[16];
+            symbolIndex = new ConcurrentHashMap<>();
+            oversized = new ConcurrentHashMap<>();
+        }
+
+        private Columns(Columns source) {
+            walletIds = source.walletIds;
+            symbolIds = source.symbolIds;
+            quantities = source.quantities;
+            costs = source.costs;
+            symbols = source.symbols;
+            symbolIndex = source.symbolIndex;
+            oversized = source.oversized;
+            size = source.size;
+            symbolCount = source.symbolCount;
+        }
+
+        void append(long walletId, String symbol, BigDecimal quantity, BigDecimal cost) {
+            if (size == walletIds.length) {
+                int capacity = walletIds.length * 2;
+                walletIds = Arrays.copyOf(walletIds, capacity);
+                symbolIds = Arrays.copyOf(symbolIds, capacity);
+                quantities = Arrays.copyOf(quantities, capacity);
+                costs = Arrays.copyOf(costs, capacity);
+            }
+            walletIds[size] = walletId;
+            symbolIds[size] = symbolIndex.computeIfAbsent(symbol, this::addSymbol);
+            quantities[size] = FixedPoint.toScaled(quantity);
+            costs[size] = FixedPoint.toScaled(cost);
+            if (quantities[size] == FixedPoint.UNREPRESENTABLE || costs[size] == FixedPoint.UNREPRESENTABLE) {
+                oversized.put(size, new BigDecimal[]{quantity, cost});
+            }
+            size++;
+        }
+
+        Columns view() {
+            return new Columns(this);
+        }
+
+        /**
+         * Whether one of the first {@code rows} rows, streamed in wallet id order, belongs to {@code walletId}.
+         */
+        boolean holdsWallet(long walletId, int rows) {
+            return Arrays.binarySearch(walletIds, 0, rows, walletId) >= 0;
+        }
+
+        private int addSymbol(String symbol) {
+            if (symbolCount == symbols.length) {
+                symbols = Arrays.copyOf(symbols, symbolCount * 2);
+            }
+            symbols[symbolCount] = symbol;
+            return symbolCount++;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.assignment.cryptowallet.service;
+
+import com.assignment.cryptowallet.dto.ResponseDto;
+import com.assignment.cryptowallet.model.Asset;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Wallet statistics computed in a single pass over the assets: total value, per-asset
+ * performance and the best and worst performers. Ties keep the first asset, matching
+ * {@code Stream.max}/{@code Stream.min}. Values are computed in {@link FixedPoint}, with latest prices
+ * at their full scale, and fall back to BigDecimal for the assets whose inputs do not fit.
+ */
+public final class PortfolioStatistics {
+    private static final BigDecimal ONE_HUNDRED = BigDecimal.valueOf(100);
+
+    private final BigDecimal totalValue;
+    private final FixedPoint.Performances performances;
+    private final Asset bestAsset;
+    private final BigDecimal bestPerformance;
+    private final Asset worstAsset;
+    private final BigDecimal worstPerformance;
+
+    private PortfolioStatistics(BigDecimal totalValue, FixedPoint.Performances performances,
+                                Asset bestAsset, BigDecimal bestPerformance,
+                                Asset worstAsset, BigDecimal worstPerformance) {
+        this.totalValue = totalValue;
+        this.performances = performances;
+        this.bestAsset = bestAsset;
+        this.bestPerformance = bestPerformance;
+        this.worstAsset = worstAsset;
+        this.worstPerformance = worstPerformance;
+    }
+
+    public static PortfolioStatistics calculate(List<Asset> assets, Map<String, BigDecimal> currencyPriceMap) {
+        if (assets.isEmpty()) {
+            throw new NoSuchElementException("No assets available in the wallet");
+        }
+        FixedPoint.Performances performances = new FixedPoint.Performances(assets.size());
+        FixedPoint.Total total = new FixedPoint.Total();
+        int best = -1;
+        int worst = -1;
+
+        int i = 0;
+        for (Asset asset : assets) {
+            BigDecimal latestPrice = currencyPriceMap.get(asset.getSymbol());
+            if (latestPrice == null) {
+                throw new NoSuchElementException("No price available for " + asset.getSymbol());
+            }
+            FixedPoint.Price price = FixedPoint.toPrice(latestPrice);
+            long quantity = FixedPoint.toScaled(asset.getQuantity());
+            if (price.units() != FixedPoint.UNREPRESENTABLE && quantity != FixedPoint.UNREPRESENTABLE) {
+                total.add(quantity, price.units(), price.fraction());
+            } else {
+                total.add(asset.getQuantity().multiply(latestPrice));
+            }
+
+            performances.set(i, price.units(), price.fraction(), FixedPoint.toScaled(asset.getPrice()),
+                    latestPrice, asset.getPrice());
+            if (best < 0 || performances.compare(i, best) > 0) {
+                best = i;
+            }
+            if (worst < 0 || performances.compare(i, worst) < 0) {
+                worst = i;
+            }
+            i++;
+        }
+        return new PortfolioStatistics(total.toBigDecimal().setScale(2, RoundingMode.HALF_UP), performances,
+                assets.get(best), performances.get(best), assets.get(worst), performances.get(worst));
+    }
+
+    public static BigDecimal performance(BigDecimal latestPrice, BigDecimal purchasePrice) {
+        return latestPrice
+                .subtract(purchasePrice)
+                .divide(purchasePrice, 2, RoundingMode.HALF_UP)
+                .multiply(ONE_HUNDRED);
+    }
+
+    public BigDecimal getTotalValue() {
+        return totalValue;
+    }
+
+    public BigDecimal getPerformance(int index) {
+        return performances.get(index);
+    }
+
+    public Asset getBestAsset() {
+        return bestAsset;
+    }
+
+    public BigDecimal getBestPerformance() {
+        return bestPerformance;
+    }
+
+    public Asset getWorstAsset() {
+        return worstAsset;
+    }
+
+    public BigDecimal getWorstPerformance() {
+        return worstPerformance;
+    }
+
+    public ResponseDto toResponseDto(LocalDateTime lastUpdated) {
+        return toResponseDto(lastUpdated, List.of());
+    }
+
+    public ResponseDto toResponseDto(LocalDateTime lastUpdated, List<String> unresolvedSymbols) {
+        return new ResponseDto(totalValue,
+                bestAsset.getSymbol(),
+                bestPerformance,
+                worstAsset.getSymbol(),
+                worstPerformance, lastUpdated,
+                unresolvedSymbols);
+    }
+}
@@ -0,0 +1,111 @@
+package com.assignment.cryptowallet.service;
+
+import com.assignment.cryptowallet.model.Currency;
+import com.assignment.cryptowallet.repository.CurrencyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+@Component
+public class PriceCache {
+    private static final Logger logger = LoggerFactory.getLogger(PriceCache.class);
+    private final CurrencyRepository currencyRepository;
+    private final Map<String, BigDecimal> prices = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @Autowired
+    public PriceCache(CurrencyRepository currencyRepository) {
+        this.currencyRepository = currencyRepository;
+    }
+
+    public Optional<BigDecimal> getPrice(String symbol) {
+        return Optional.ofNullable(prices.get(symbol));
+    }
+
+    public boolean contains(String symbol) {
+        return prices.containsKey(symbol);
+    }
+
+    /**
+     * Returns the latest known price of every requested symbol. Symbols missing from memory
+     * are loaded with a single {@code findBySymbolIn} query; unknown symbols are left out.
+     */
+    public Map<String, BigDecimal> getPrices(Collection<String> symbols) {
+        Map<String, BigDecimal> result = new HashMap<>();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String symbol : symbols) {
+            BigDecimal price = prices.get(symbol);
+            if (price != null) {
+                result.put(symbol, price);
+            } else {
+                missing.add(symbol);
+            }
+        }
+        hits.add(result.size());
+        misses.add(missing.size());
+        if (!missing.isEmpty()) {
+            logger.debug("Loading {} prices missing from cache", missing.size());
+            currencyRepository.findBySymbolIn(new ArrayList<>(missing)).orElse(List.of()).forEach(currency -> {
+                put(currency);
+                if (currency.getLatestPrice() != null) {
+                    result.put(currency.getSymbol(), currency.getLatestPrice());
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Returns the in-memory prices of the requested symbols without loading missing ones or counting the
+     * lookup, for callers re-reading symbols that {@link #getPrices} has already resolved.
+     */
+    public Map<String, BigDecimal> getCachedPrices(Collection<String> symbols) {
+        Map<String, BigDecimal> result = new HashMap<>();
+        for (String symbol : symbols) {
+            BigDecimal price = prices.get(symbol);
+            if (price != null) {
+                result.put(symbol, price);
+            }
+        }
+        return result;
+    }
+
+    public void put(Currency currency) {
+        if (currency.getSymbol() != null && currency.getLatestPrice() != null) {
+            prices.put(currency.getSymbol(), currency.getLatestPrice());
+        }
+    }
+
+    public void putAll(Collection<Currency> currencies) {
+        currencies.forEach(this::put);
+    }
+
+    public void evict(String symbol) {
+        prices.remove(symbol);
+    }
+
+    public int size() {
+        return prices.size();
+    }
+
+    /**
+     * Symbols {@link #getPrices} found in memory.
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Symbols {@link #getPrices} had to look up in the database.
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+}
@@ -0,0 +1,236 @@
+package com.assignment.cryptowallet.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Append-only price history fed by the scheduled refreshes. Each symbol's ticks are split into
+ * partitions of {@code price-history.partition} ms; a partition stores timestamps as int deltas from
+ * the previous tick and prices as longs scaled by 10^{@value #PRICE_SCALE}, 12 bytes per tick.
+ * Range queries binary-search the partitions and decode only the ones overlapping the range.
+ * Partitions older than {@code price-history.retention} ms are dropped as new ticks arrive.
+ */
+@Component
+public class PriceHistoryStore {
+    public static final int PRICE_SCALE = 8;
+    private static final Logger logger = LoggerFactory.getLogger(PriceHistoryStore.class);
+    private final PriceCache priceCache;
+    private final long partitionMillis;
+    private final long retentionMillis;
+    private final Map<String, Series> series = new ConcurrentHashMap<>();
+
+    @Autowired
+    public PriceHistoryStore(PriceCache priceCache,
+                             @Value("${price-history.partition:3600000}") long partitionMillis,
+                             @Value("${price-history.retention:604800000}") long retentionMillis) {
+        if (partitionMillis <= 0 || partitionMillis > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("price-history.partition must be between 1 and " + Integer.MAX_VALUE + " ms");
+        }
+        this.priceCache = priceCache;
+        this.partitionMillis = partitionMillis;
+        this.retentionMillis = retentionMillis;
+    }
+
+    @EventListener
+    public void onPriceRefreshed(PriceRefreshedEvent event) {
+        long epochMillis = event.updateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        event.symbols().forEach(symbol -> priceCache.getPrice(symbol)
+                .ifPresent(price -> record(symbol, epochMillis, price)));
+    }
+
+    /**
+     * Appends a tick; returns {@code false} if it is older than the symbol's latest tick or the price
+     * is negative or does not fit the scaled representation.
+     */
+    public boolean record(String symbol, long epochMillis, BigDecimal price) {
+        if (price.signum() < 0) {
+            return false;
+        }
+        long scaledPrice;
+        try {
+            scaledPrice = toScaled(price);
+        } catch (ArithmeticException e) {
+            logger.warn("Price {} of {} is out of range for the history store", price, symbol);
+            return false;
+        }
+        return series.computeIfAbsent(symbol, key -> new Series()).append(epochMillis, scaledPrice);
+    }
+
+    /**
+     * Returns the ticks with {@code fromMillis <= timestamp < toMillis}.
+     */
+    public PriceSeries range(String symbol, long fromMillis, long toMillis) {
+        Series ticks = series.get(symbol);
+        if (ticks == null || fromMillis >= toMillis) {
+            return new PriceSeries(symbol, new long[0], new long[0]);
+        }
+        return ticks.range(symbol, fromMillis, toMillis);
+    }
+
+    /**
+     * Returns the latest price recorded at or before {@code epochMillis}.
+     */
+    public Optional<BigDecimal> priceAt(String symbol, long epochMillis) {
+        Series ticks = series.get(symbol);
+        if (ticks == null) {
+            return Optional.empty();
+        }
+        long scaledPrice = ticks.priceAt(epochMillis);
+        return scaledPrice < 0 ? Optional.empty() : Optional.of(fromScaled(scaledPrice));
+    }
+
+    public int size(String symbol) {
+        Series ticks = series.get(symbol);
+        return ticks == null ? 0 : ticks.size();
+    }
+
+    public Set<String> symbols() {
+        return series.keySet();
+    }
+
+    static long toScaled(BigDecimal price) {
+        return price.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    static BigDecimal fromScaled(long scaledPrice) {
+        return BigDecimal.valueOf(scaledPrice, PRICE_SCALE);
+    }
+
+    private final class Series {
+        private final List<Partition> partitions = new ArrayList<>();
+        private long lastTime = Long.MIN_VALUE;
+
+        synchronized boolean append(long epochMillis, long scaledPrice) {
+            if (epochMillis < lastTime) {
+                return false;
+            }
+            long start = Math.floorDiv(epochMillis, partitionMillis) * partitionMillis;
+            Partition last = partitions.isEmpty() ? null : partitions.get(partitions.size() - 1);
+            if (last == null || last.start != start) {
+                last = new Partition(start);
+                partitions.add(last);
+                evictBefore(epochMillis - retentionMillis);
+            }
+            last.append(epochMillis, scaledPrice);
+            lastTime = epochMillis;
+            return true;
+        }
+
+        synchronized PriceSeries range(String symbol, long fromMillis, long toMillis) {
+            int count = 0;
+            int first = firstPartitionEndingAfter(fromMillis);
+            int end = first;
+            while (end < partitions.size() && partitions.get(end).start < toMillis) {
+                count += partitions.get(end).count;
+                end++;
+            }
+            long[] timestamps = new long[count];
+            long[] scaledPrices = new long[count];
+            int size = 0;
+            for (int p = first; p < end; p++) {
+                Partition partition = partitions.get(p);
+                long time = partition.start;
+                for (int i = 0; i < partition.count; i++) {
+                    time += partition.deltas[i];
+                    if (time >= toMillis) {
+                        break;
+                    }
+                    if (time >= fromMillis) {
+                        timestamps[size] = time;
+                        scaledPrices[size] = partition.prices[i];
+                        size++;
+                    }
+                }
+            }
+            return new PriceSeries(symbol, Arrays.copyOf(timestamps, size), Arrays.copyOf(scaledPrices, size));
+        }
+
+        synchronized long priceAt(long epochMillis) {
+            int p = firstPartitionEndingAfter(epochMillis);
+            if (p == partitions.size() || partitions.get(p).start > epochMillis) {
+                p--;
+            }
+            for (; p >= 0; p--) {
+                Partition partition = partitions.get(p);
+                long time = partition.start;
+                long price = -1;
+                for (int i = 0; i < partition.count; i++) {
+                    time += partition.deltas[i];
+                    if (time > epochMillis) {
+                        break;
+                    }
+                    price = partition.prices[i];
+                }
+                if (price >= 0) {
+                    return price;
+                }
+            }
+            return -1;
+        }
+
+        synchronized int size() {
+            return partitions.stream().mapToInt(partition -> partition.count).sum();
+        }
+
+        private int firstPartitionEndingAfter(long epochMillis) {
+            int low = 0;
+            int high = partitions.size();
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (partitions.get(mid).start + partitionMillis <= epochMillis) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private void evictBefore(long epochMillis) {
+            int expired = firstPartitionEndingAfter(epochMillis);
+            if (expired > 0) {
+                partitions.subList(0, expired).clear();
+            }
+        }
+    }
+
+    private static final class Partition {
+        private final long start;
+        private int[] deltas = new int[64];
+        private long[] prices = new long[64];
+        private int count;
+        private long lastTime;
+
+        Partition(long start) {
+            this.start = start;
+            this.lastTime = start;
+        }
+
+        void append(long epochMillis, long scaledPrice) {
+            if (count == deltas.length) {
+                int capacity = count + (count >> 1);
+                deltas = Arrays.copyOf(deltas, capacity);
+                prices = Arrays.copyOf(prices, capacity);
+            }
+            deltas[count] = (int) (epochMillis - lastTime);
+            prices[count] = scaledPrice;
+            lastTime = epochMillis;
+            count++;
+        }
+    }
+}
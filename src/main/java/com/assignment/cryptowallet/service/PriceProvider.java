@@ -0,0 +1,34 @@
+package com.assignment.cryptowallet.service;
+
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Source of asset names and USD prices. Assets are identified by their lower-case CoinCap id
+ * (e.g. {@code bitcoin}); a provider that does not know an asset completes empty or leaves it out.
+ */
+public interface PriceProvider {
+
+    String name();
+
+    Mono<BigDecimal> fetchPrice(String id);
+
+    Mono<Map<String, BigDecimal>> fetchBatch(List<String> ids);
+
+    /**
+     * Fetches {@code ids} in requests of {@code batchSize}; a failed batch is left out of the result.
+     */
+    Mono<Map<String, BigDecimal>> fetchPrices(List<String> ids, int batchSize);
+
+    Mono<String> searchName(String symbol);
+
+    /**
+     * Names of up to {@code limit} assets by upper-case symbol, most relevant first.
+     */
+    Mono<Map<String, String>> fetchSymbolNames(int limit);
+
+    Mono<BigDecimal> historicalPrice(String id, long start, long end);
+}
@@ -0,0 +1,10 @@
+package com.assignment.cryptowallet.service;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Published by {@link PriceUpdateScheduler} after a refresh has been written and cached.
+ */
+public record PriceRefreshedEvent(Set<String> symbols, LocalDateTime updateTime) {
+}
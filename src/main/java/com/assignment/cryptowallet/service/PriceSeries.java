@@ -0,0 +1,26 @@
+package com.assignment.cryptowallet.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Price ticks of one symbol in time order, as parallel columns of epoch milliseconds and prices
+ * scaled by 10^{@value PriceHistoryStore#PRICE_SCALE}.
+ */
+public record PriceSeries(String symbol, long[] timestamps, long[] scaledPrices) {
+
+    public int size() {
+        return timestamps.length;
+    }
+
+    public long timestamp(int index) {
+        return timestamps[index];
+    }
+
+    public BigDecimal price(int index) {
+        return PriceHistoryStore.fromScaled(scaledPrices[index]);
+    }
+
+    public boolean isEmpty() {
+        return timestamps.length == 0;
+    }
+}
@@ -1,29 +1,54 @@
 package com.assignment.cryptowallet.service;
 
+import com.assignment.cryptowallet.dto.PriceWriteReport;
 import com.assignment.cryptowallet.model.Currency;
 import com.assignment.cryptowallet.repository.CurrencyRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ThreadPoolExecutor;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
+/**
+ * Refreshes the due currencies every {@code currency.update.duration} ms. Each cycle's duration is
+ * recorded in {@code price.refresh.duration}, and {@code price.refresh.lag} reports per symbol the seconds
+ * since its price was last refreshed.
+ */
 @Service
+@DependsOn("tickJournal")
 public class PriceUpdateScheduler {
     private static final Logger logger = LoggerFactory.getLogger(PriceUpdateScheduler.class);
     private final CurrencyRepository currencyRepository;
-    private final CryptoService cryptoService;
-    private final ThreadPoolExecutor taskExecutor;
+    private final PriceProvider priceProvider;
+    private final PriceCache priceCache;
+    private final CurrencyPriceWriter currencyPriceWriter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RefreshPlanner refreshPlanner;
+    private final Timer refreshTimer;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AtomicLong> lastUpdates = new ConcurrentHashMap<>();
     @Value("${currency.update.duration:60000}")
     private long updateDuration;
+    @Value("${currency.update.batch-size:50}")
+    private int batchSize;
     private final ThreadPoolTaskScheduler taskScheduler = new ThreadPoolTaskScheduler();
 
     @PostConstruct
@@ -34,49 +59,103 @@ public class PriceUpdateScheduler {
 
     @Autowired
     public PriceUpdateScheduler(CurrencyRepository currencyRepository,
-                                CryptoService cryptoService,
-                                ThreadPoolExecutor taskExecutor) {
+                                PriceProvider priceProvider,
+                                PriceCache priceCache,
+                                CurrencyPriceWriter currencyPriceWriter,
+                                ApplicationEventPublisher eventPublisher,
+                                RefreshPlanner refreshPlanner,
+                                MeterRegistry meterRegistry) {
 
         this.currencyRepository = currencyRepository;
-        this.cryptoService = cryptoService;
-        this.taskExecutor = taskExecutor;
+        this.priceProvider = priceProvider;
+        this.priceCache = priceCache;
+        this.currencyPriceWriter = currencyPriceWriter;
+        this.eventPublisher = eventPublisher;
+        this.refreshPlanner = refreshPlanner;
+        this.refreshTimer = Timer.builder("price.refresh.duration")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.meterRegistry = meterRegistry;
     }
 
 
     public void fetchAndUpdatePrices() {
+        refreshTimer.record(this::refreshDuePrices);
+    }
+
+    private void refreshDuePrices() {
         try {
-            if (currencyRepository.count() == 0) {
+            List<Currency> currencies = currencyRepository.findAll();
+            if (currencies.isEmpty()) {
                 logger.info("No currencies found");
                 return;
             }
-            List<Currency> currencies = currencyRepository.findAll();
+            currencies.forEach(this::trackLag);
+            List<Currency> due = refreshPlanner.plan(currencies, System.currentTimeMillis(), updateDuration, batchSize);
+            if (due.isEmpty()) {
+                logger.debug("None of {} currencies is due for a refresh", currencies.size());
+                return;
+            }
             logger.info("-----------------------------------------------------------------------------------------");
-            int batchSize = 3;
-            for (int i = 0; i < currencies.size(); i += batchSize) {
-                int end = Math.min(i + batchSize, currencies.size());
-                List<Currency> batch = currencies.subList(i, end);
+            Map<String, List<Currency>> currenciesById = due.stream()
+                    .filter(currency -> currency.getName() != null)
+                    .collect(Collectors.groupingBy(currency -> currency.getName().toLowerCase()));
+            List<String> ids = new ArrayList<>(currenciesById.keySet());
+
+            int requests = (ids.size() + batchSize - 1) / batchSize;
+            logger.debug("Submitted {} requests for {} currencies at {}", requests, ids.size(), LocalDateTime.now());
+            Map<String, BigDecimal> prices = priceProvider.fetchPrices(ids, batchSize)
+                    .defaultIfEmpty(Map.of())
+                    .block();
+            refreshPlanner.markAttempted(due.stream().map(Currency::getSymbol).toList(), System.currentTimeMillis());
 
-                List<CompletableFuture<Void>> futures = batch.stream()
-                        .map(currency -> CompletableFuture.runAsync(() -> {
-                            try {
-                                logger.info("Submitted request {} at {}", currency.getSymbol(), LocalDateTime.now());
-                                BigDecimal price = cryptoService.fetchPrice(currency.getName()).join();
-                                currency.setLatestPrice(price);
-                                currency.setUpdateTime(LocalDateTime.now());
-                                currencyRepository.save(currency);
-                                logger.debug("Updated price for {} at {}", currency.getSymbol(), LocalDateTime.now());
-                            } catch (Exception e) {
-                                logger.error("Failed to update price for {}: {}", currency.getSymbol(), e.getMessage());
-                            }
-                        }, taskExecutor))
-                        .toList();
+            LocalDateTime updateTime = LocalDateTime.now();
+            List<Currency> updated = new ArrayList<>();
+            prices.forEach((id, price) -> currenciesById.getOrDefault(id, List.of()).forEach(currency -> {
+                currency.setLatestPrice(price);
+                currency.setUpdateTime(updateTime);
+                trackLag(currency);
+                updated.add(currency);
+            }));
 
-                CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+            PriceWriteReport report = new PriceWriteReport(0, 0);
+            if (!updated.isEmpty()) {
+                report = currencyPriceWriter.writePrices(updated);
+                priceCache.putAll(updated);
+                Set<String> symbols = updated.stream().map(Currency::getSymbol).collect(Collectors.toSet());
+                eventPublisher.publishEvent(new PriceRefreshedEvent(symbols, updateTime));
             }
+            logger.info("Updated {} of {} due ({} total) currencies in {} requests, {} rows written in {} ms",
+                    updated.size(), due.size(), currencies.size(), requests, report.rowsWritten(), report.elapsedMillis());
         } catch (Exception e) {
-            logger.error("Failed to update price");
+            logger.error("Failed to update price", e);
         }
     }
 
-}
+    /**
+     * Keeps the symbol's last update time for its {@code price.refresh.lag} gauge, registered on first sight.
+     */
+    private void trackLag(Currency currency) {
+        if (currency.getSymbol() == null) {
+            return;
+        }
+        AtomicLong lastUpdate = lastUpdates.computeIfAbsent(currency.getSymbol(), symbol -> {
+            AtomicLong epochMillis = new AtomicLong(Long.MIN_VALUE);
+            Gauge.builder("price.refresh.lag", epochMillis, PriceUpdateScheduler::secondsSince)
+                    .tag("symbol", symbol)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+            return epochMillis;
+        });
+        LocalDateTime updateTime = currency.getUpdateTime();
+        if (updateTime != null) {
+            lastUpdate.accumulateAndGet(updateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli(), Math::max);
+        }
+    }
 
+    private static double secondsSince(AtomicLong epochMillis) {
+        long lastUpdate = epochMillis.get();
+        return lastUpdate == Long.MIN_VALUE ? Double.NaN : (System.currentTimeMillis() - lastUpdate) / 1000.0;
+    }
+
+}
@@ -0,0 +1,135 @@
+package com.assignment.cryptowallet.service;
+
+import com.assignment.cryptowallet.model.Currency;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Chooses the currencies a refresh cycle fetches. Every symbol gets a target interval between
+ * {@code currency.update.min-interval} and {@code currency.update.max-interval}: symbols no wallet holds
+ * use the maximum, others are refreshed more often the more USD value is held in them and the wider their
+ * price range over the last {@code currency.update.volatility-window} ms. Each cycle fetches the due
+ * currencies, most overdue first, within {@code currency.update.request-budget} CoinCap requests per minute.
+ */
+@Component
+public class RefreshPlanner {
+    private final WalletValuationIndex walletValuationIndex;
+    private final PriceHistoryStore priceHistoryStore;
+    private final PriceCache priceCache;
+    private final long minInterval;
+    private final long maxInterval;
+    private final long volatilityWindow;
+    private final double volatilityReference;
+    private final int requestBudget;
+    private final Map<String, Long> lastAttempts = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RefreshPlanner(WalletValuationIndex walletValuationIndex,
+                          PriceHistoryStore priceHistoryStore,
+                          PriceCache priceCache,
+                          @Value("${currency.update.min-interval:6000}") long minInterval,
+                          @Value("${currency.update.max-interval:300000}") long maxInterval,
+                          @Value("${currency.update.volatility-window:3600000}") long volatilityWindow,
+                          @Value("${currency.update.volatility-reference:0.01}") double volatilityReference,
+                          @Value("${currency.update.request-budget:60}") int requestBudget) {
+        this.walletValuationIndex = walletValuationIndex;
+        this.priceHistoryStore = priceHistoryStore;
+        this.priceCache = priceCache;
+        this.minInterval = minInterval;
+        this.maxInterval = Math.max(minInterval, maxInterval);
+        this.volatilityWindow = volatilityWindow;
+        this.volatilityReference = volatilityReference;
+        this.requestBudget = requestBudget;
+    }
+
+    /**
+     * Returns the currencies to fetch in a cycle starting at {@code nowMillis}; currencies sharing a
+     * CoinCap id are selected together. A request budget of 0 or less fetches every due currency.
+     */
+    public List<Currency> plan(List<Currency> currencies, long nowMillis, long cycleMillis, int batchSize) {
+        Map<String, List<Currency>> currenciesById = new HashMap<>();
+        Map<String, Double> urgencies = new HashMap<>();
+        for (Currency currency : currencies) {
+            if (currency.getName() == null) {
+                continue;
+            }
+            String id = currency.getName().toLowerCase();
+            currenciesById.computeIfAbsent(id, key -> new ArrayList<>()).add(currency);
+            double urgency = urgency(currency, nowMillis, cycleMillis);
+            if (urgency >= 1) {
+                urgencies.merge(id, urgency, Math::max);
+            }
+        }
+        int maxIds = requestBudget <= 0 ? Integer.MAX_VALUE
+                : (int) Math.min(Integer.MAX_VALUE, Math.max(1, requestBudget * cycleMillis / 60_000) * batchSize);
+        List<Currency> selected = new ArrayList<>();
+        urgencies.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                .limit(maxIds)
+                .forEach(entry -> selected.addAll(currenciesById.get(entry.getKey())));
+        return selected;
+    }
+
+    /**
+     * Records that the symbols were requested, whether or not CoinCap returned a price for them.
+     */
+    public void markAttempted(Collection<String> symbols, long nowMillis) {
+        symbols.forEach(symbol -> lastAttempts.put(symbol, nowMillis));
+    }
+
+    /**
+     * Target refresh interval of {@code symbol} in ms.
+     */
+    long interval(String symbol, long nowMillis) {
+        BigDecimal price = priceCache.getPrice(symbol).orElse(null);
+        BigDecimal quantity = walletValuationIndex.heldQuantity(symbol);
+        if (price == null || quantity.signum() <= 0) {
+            return maxInterval;
+        }
+        double heldValue = quantity.multiply(price).doubleValue();
+        double valueWeight = 1 + Math.log10(1 + heldValue);
+        double volatilityWeight = 1 + volatility(symbol, nowMillis) / volatilityReference;
+        long interval = (long) (maxInterval / (valueWeight * volatilityWeight));
+        return Math.max(minInterval, Math.min(maxInterval, interval));
+    }
+
+    /**
+     * Price range over the volatility window relative to the latest price, 0 without enough ticks.
+     */
+    double volatility(String symbol, long nowMillis) {
+        PriceSeries series = priceHistoryStore.range(symbol, nowMillis - volatilityWindow, nowMillis + 1);
+        if (series.size() < 2) {
+            return 0;
+        }
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (long scaledPrice : series.scaledPrices()) {
+            min = Math.min(min, scaledPrice);
+            max = Math.max(max, scaledPrice);
+        }
+        long last = series.scaledPrices()[series.size() - 1];
+        return last == 0 ? 0 : (double) (max - min) / last;
+    }
+
+    /**
+     * Elapsed time over target interval; half a cycle of slack keeps a symbol whose interval equals the
+     * cycle length from slipping to every other cycle.
+     */
+    private double urgency(Currency currency, long nowMillis, long cycleMillis) {
+        long lastRefresh = lastAttempts.getOrDefault(currency.getSymbol(), Long.MIN_VALUE);
+        if (currency.getUpdateTime() != null) {
+            lastRefresh = Math.max(lastRefresh,
+                    currency.getUpdateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+        if (lastRefresh == Long.MIN_VALUE) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return (double) (nowMillis - lastRefresh + cycleMillis / 2) / interval(currency.getSymbol(), nowMillis);
+    }
+}
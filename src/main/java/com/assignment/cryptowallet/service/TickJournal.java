@@ -0,0 +1,330 @@
+package com.assignment.cryptowallet.service;
+
+import com.assignment.cryptowallet.model.Currency;
+import com.assignment.cryptowallet.repository.CurrencyRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Append-only, memory-mapped journal of every price applied by a refresh cycle. Segments of
+ * {@code price-journal.segment-size} bytes hold symbol definitions (id, symbol, CoinCap name) and
+ * ticks (symbol id, epoch millis, price scaled by 10^{@value PriceHistoryStore#PRICE_SCALE}). Prices with
+ * more decimals, like CoinCap's 16, are journaled exactly as precise ticks (symbol id, epoch millis, scale,
+ * unscaled value bytes); the price history keeps them at its own scale, the restored latest prices do not.
+ * A record's type byte is written after its payload and each cycle ends with a {@code force()}, so
+ * replay stops cleanly at the first unwritten or torn record.
+ * <p>
+ * On startup the journal is replayed, before the scheduler starts, into the price history, the
+ * price cache and any missing currency rows, so a restart needs no CoinCap calls to price known symbols.
+ */
+@Component
+@DependsOn("currencyCatalog")
+public class TickJournal {
+    static final int MAGIC = 0x54494B31;
+    static final int HEADER_SIZE = 8;
+    static final byte SYMBOL_RECORD = 1;
+    static final byte TICK_RECORD = 2;
+    static final byte PRECISE_TICK_RECORD = 3;
+    static final int TICK_SIZE = 1 + 4 + 8 + 8;
+    private static final Logger logger = LoggerFactory.getLogger(TickJournal.class);
+    private final CurrencyRepository currencyRepository;
+    private final PriceCache priceCache;
+    private final PriceHistoryStore priceHistoryStore;
+    private final boolean enabled;
+    private final Path directory;
+    private final int segmentSize;
+    private final Map<String, Integer> symbolIds = new HashMap<>();
+    private int segmentIndex = -1;
+    private FileChannel channel;
+    private MappedByteBuffer segment;
+
+    @Autowired
+    public TickJournal(CurrencyRepository currencyRepository,
+                       PriceCache priceCache,
+                       PriceHistoryStore priceHistoryStore,
+                       @Value("${price-journal.enabled:false}") boolean enabled,
+                       @Value("${price-journal.path:data/price-journal}") Path directory,
+                       @Value("${price-journal.segment-size:67108864}") int segmentSize) {
+        this.currencyRepository = currencyRepository;
+        this.priceCache = priceCache;
+        this.priceHistoryStore = priceHistoryStore;
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+    }
+
+    @PostConstruct
+    public synchronized void open() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        Files.createDirectories(directory);
+        List<Path> segments = segments();
+        Replay replay = new Replay();
+        for (Path path : segments) {
+            try (FileChannel readChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+                replaySegment(path, readChannel.map(FileChannel.MapMode.READ_ONLY, 0, readChannel.size()), replay);
+            }
+        }
+        restoreLatestPrices(replay.definitions, replay.latest);
+        replay.definitions.forEach((id, definition) -> symbolIds.put(definition[0], id));
+
+        if (segments.isEmpty()) {
+            openSegment(0, HEADER_SIZE);
+        } else {
+            int last = segmentIndex(segments.get(segments.size() - 1));
+            if (replay.position + TICK_SIZE < segmentSize) {
+                openSegment(last, replay.position);
+            } else {
+                openSegment(last + 1, HEADER_SIZE);
+            }
+        }
+        logger.info("Replayed {} ticks of {} symbols from {} journal segments in {} ms",
+                replay.ticks, replay.definitions.size(), segments.size(), System.currentTimeMillis() - start);
+    }
+
+    @EventListener
+    public synchronized void onPriceRefreshed(PriceRefreshedEvent event) {
+        if (segment == null) {
+            return;
+        }
+        long epochMillis = event.updateTime().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        defineSymbols(event.symbols());
+        int written = 0;
+        for (String symbol : event.symbols()) {
+            Optional<BigDecimal> price = priceCache.getPrice(symbol);
+            Integer id = symbolIds.get(symbol);
+            if (price.isEmpty() || id == null) {
+                continue;
+            }
+            if (price.get().scale() > PriceHistoryStore.PRICE_SCALE) {
+                if (writePreciseTick(id, epochMillis, price.get())) {
+                    written++;
+                }
+                continue;
+            }
+            long scaledPrice;
+            try {
+                scaledPrice = PriceHistoryStore.toScaled(price.get());
+            } catch (ArithmeticException e) {
+                continue;
+            }
+            ensureCapacity(TICK_SIZE);
+            int position = segment.position();
+            segment.putInt(position + 1, id);
+            segment.putLong(position + 5, epochMillis);
+            segment.putLong(position + 13, scaledPrice);
+            segment.put(position, TICK_RECORD);
+            segment.position(position + TICK_SIZE);
+            written++;
+        }
+        segment.force();
+        logger.debug("Journaled {} ticks", written);
+    }
+
+    @PreDestroy
+    public synchronized void close() throws IOException {
+        if (segment != null) {
+            segment.force();
+            channel.close();
+            segment = null;
+        }
+    }
+
+    private void defineSymbols(Set<String> symbols) {
+        List<String> undefined = symbols.stream().filter(symbol -> !symbolIds.containsKey(symbol)).toList();
+        if (undefined.isEmpty()) {
+            return;
+        }
+        Map<String, String> names = new HashMap<>();
+        currencyRepository.findBySymbolIn(undefined).orElse(List.of())
+                .forEach(currency -> names.put(currency.getSymbol(), currency.getName()));
+        for (String symbol : undefined) {
+            int id = symbolIds.size();
+            byte[] symbolBytes = symbol.getBytes(StandardCharsets.UTF_8);
+            byte[] nameBytes = names.getOrDefault(symbol, "").getBytes(StandardCharsets.UTF_8);
+            ensureCapacity(1 + 4 + 2 + symbolBytes.length + 2 + nameBytes.length);
+            int position = segment.position();
+            segment.position(position + 1);
+            segment.putInt(id);
+            segment.putShort((short) symbolBytes.length);
+            segment.put(symbolBytes);
+            segment.putShort((short) nameBytes.length);
+            segment.put(nameBytes);
+            segment.put(position, SYMBOL_RECORD);
+            symbolIds.put(symbol, id);
+        }
+    }
+
+    private boolean writePreciseTick(int id, long epochMillis, BigDecimal price) {
+        byte[] unscaled = price.unscaledValue().toByteArray();
+        if (price.scale() > Byte.MAX_VALUE || unscaled.length > Byte.MAX_VALUE) {
+            return false;
+        }
+        ensureCapacity(1 + 4 + 8 + 1 + 1 + unscaled.length);
+        int position = segment.position();
+        segment.position(position + 1);
+        segment.putInt(id);
+        segment.putLong(epochMillis);
+        segment.put((byte) price.scale());
+        segment.put((byte) unscaled.length);
+        segment.put(unscaled);
+        segment.put(position, PRECISE_TICK_RECORD);
+        return true;
+    }
+
+    private void replaySegment(Path path, MappedByteBuffer buffer, Replay replay) {
+        if (buffer.limit() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalStateException("Not a price journal segment: " + path);
+        }
+        buffer.position(HEADER_SIZE);
+        replay.position = HEADER_SIZE;
+        while (buffer.remaining() >= TICK_SIZE) {
+            byte type = buffer.get();
+            if (type == SYMBOL_RECORD) {
+                int id = buffer.getInt();
+                String symbol = readString(buffer);
+                String name = readString(buffer);
+                replay.definitions.put(id, new String[]{symbol, name.isEmpty() ? null : name});
+            } else if (type == TICK_RECORD) {
+                int id = buffer.getInt();
+                long epochMillis = buffer.getLong();
+                replayTick(replay, id, epochMillis, PriceHistoryStore.fromScaled(buffer.getLong()));
+            } else if (type == PRECISE_TICK_RECORD) {
+                int id = buffer.getInt();
+                long epochMillis = buffer.getLong();
+                int scale = buffer.get();
+                byte[] unscaled = new byte[buffer.get()];
+                buffer.get(unscaled);
+                replayTick(replay, id, epochMillis, new BigDecimal(new BigInteger(unscaled), scale));
+            } else {
+                return;
+            }
+            replay.position = buffer.position();
+        }
+    }
+
+    private void replayTick(Replay replay, int id, long epochMillis, BigDecimal price) {
+        String[] definition = replay.definitions.get(id);
+        if (definition != null) {
+            priceHistoryStore.record(definition[0], epochMillis, price);
+            replay.latest.put(id, new Tick(epochMillis, price));
+            replay.ticks++;
+        }
+    }
+
+    private void restoreLatestPrices(Map<Integer, String[]> definitions, Map<Integer, Tick> latest) {
+        if (latest.isEmpty()) {
+            return;
+        }
+        Map<String, Currency> journaled = new LinkedHashMap<>();
+        latest.forEach((id, tick) -> {
+            String[] definition = definitions.get(id);
+            LocalDateTime updateTime = LocalDateTime.ofInstant(Instant.ofEpochMilli(tick.epochMillis()), ZoneId.systemDefault());
+            journaled.put(definition[0], new Currency(definition[1], definition[0], tick.price(), updateTime));
+        });
+        Map<String, Currency> existing = new HashMap<>();
+        currencyRepository.findBySymbolIn(new ArrayList<>(journaled.keySet())).orElse(List.of())
+                .forEach(currency -> existing.put(currency.getSymbol(), currency));
+
+        List<Currency> missing = new ArrayList<>();
+        journaled.forEach((symbol, currency) -> {
+            Currency row = existing.get(symbol);
+            if (row == null) {
+                if (currency.getName() != null) {
+                    missing.add(currency);
+                }
+                priceCache.put(currency);
+            } else if (row.getUpdateTime() == null || row.getUpdateTime().isBefore(currency.getUpdateTime())) {
+                priceCache.put(currency);
+            } else {
+                priceCache.put(row);
+            }
+        });
+        if (!missing.isEmpty()) {
+            currencyRepository.saveAll(missing);
+        }
+        logger.info("Restored latest prices of {} symbols, recreated {} currencies", journaled.size(), missing.size());
+    }
+
+    private void ensureCapacity(int recordSize) {
+        if (segment.remaining() < recordSize + TICK_SIZE) {
+            openSegment(segmentIndex + 1, HEADER_SIZE);
+        }
+    }
+
+    private void openSegment(int index, int position) {
+        try {
+            if (channel != null) {
+                segment.force();
+                channel.close();
+            }
+            channel = FileChannel.open(segmentPath(index),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            segment.putInt(0, MAGIC);
+            segment.putInt(4, 1);
+            segment.position(position);
+            segmentIndex = index;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open price journal segment " + index, e);
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().matches("ticks-\\d{6}\\.journal"))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static int segmentIndex(Path segment) {
+        String fileName = segment.getFileName().toString();
+        return Integer.parseInt(fileName.substring("ticks-".length(), fileName.indexOf('.')));
+    }
+
+    private Path segmentPath(int index) {
+        return directory.resolve(String.format("ticks-%06d.journal", index));
+    }
+
+    private static String readString(MappedByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private record Tick(long epochMillis, BigDecimal price) {
+    }
+
+    private static final class Replay {
+        private final Map<Integer, String[]> definitions = new HashMap<>();
+        private final Map<Integer, Tick> latest = new HashMap<>();
+        private int ticks;
+        private int position = HEADER_SIZE;
+    }
+}
@@ -0,0 +1,224 @@
+package com.assignment.cryptowallet.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Single entry point for every CoinCap request. Each attempt takes a permit from a token bucket of
+ * {@code coincap.gateway.requests-per-second} with bursts of {@code coincap.gateway.burst}; callers over the
+ * rate are delayed rather than rejected. HTTP 429, 5xx, timeouts and connection errors are retried up to
+ * {@code coincap.gateway.max-retries} times with jittered exponential backoff, and a 429's
+ * {@code Retry-After} pauses the bucket for everyone. After {@code coincap.gateway.failure-threshold}
+ * consecutive failed calls the circuit opens and calls fail fast for {@code coincap.gateway.open-duration} ms,
+ * then a single probe decides whether it closes again.
+ */
+@Component
+public class UpstreamGateway {
+    private static final Logger logger = LoggerFactory.getLogger(UpstreamGateway.class);
+    private final double requestsPerSecond;
+    private final int burst;
+    private final int failureThreshold;
+    private final long openDuration;
+    private final TokenBucket tokenBucket;
+    private final CircuitBreaker circuitBreaker;
+    private final int maxRetries;
+    private final Duration minBackoff;
+    private final Duration maxBackoff;
+
+    @Autowired
+    public UpstreamGateway(@Value("${coincap.gateway.requests-per-second:3}") double requestsPerSecond,
+                           @Value("${coincap.gateway.burst:10}") int burst,
+                           @Value("${coincap.gateway.max-retries:3}") int maxRetries,
+                           @Value("${coincap.gateway.backoff-min:200}") long minBackoff,
+                           @Value("${coincap.gateway.backoff-max:5000}") long maxBackoff,
+                           @Value("${coincap.gateway.failure-threshold:5}") int failureThreshold,
+                           @Value("${coincap.gateway.open-duration:30000}") long openDuration) {
+        if (requestsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("coincap.gateway.requests-per-second and burst must be positive");
+        }
+        this.requestsPerSecond = requestsPerSecond;
+        this.burst = burst;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.tokenBucket = new TokenBucket(requestsPerSecond, burst);
+        this.circuitBreaker = new CircuitBreaker(failureThreshold, Duration.ofMillis(openDuration).toNanos());
+        this.maxRetries = maxRetries;
+        this.minBackoff = Duration.ofMillis(minBackoff);
+        this.maxBackoff = Duration.ofMillis(maxBackoff);
+    }
+
+    /**
+     * Subscribes to {@code request} once per attempt. Fails with {@link UpstreamUnavailableException} while
+     * the circuit is open, otherwise with the last attempt's error.
+     */
+    public <T> Mono<T> call(String operation, Supplier<Mono<T>> request) {
+        return Mono.defer(() -> {
+            CircuitBreaker.Admission admission = circuitBreaker.tryAcquire();
+            if (admission == CircuitBreaker.Admission.REJECTED) {
+                return Mono.error(new UpstreamUnavailableException(operation));
+            }
+            boolean probe = admission == CircuitBreaker.Admission.PROBE;
+            return Mono.defer(() -> permit().then(Mono.defer(request)))
+                    .doOnError(this::throttleOnRateLimit)
+                    .retryWhen(Retry.backoff(maxRetries, minBackoff)
+                            .maxBackoff(maxBackoff)
+                            .jitter(0.5)
+                            .filter(UpstreamGateway::isRetryable)
+                            .doBeforeRetry(signal -> logger.debug("Retrying {} after {}", operation,
+                                    signal.failure().getMessage()))
+                            .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                    .doOnSuccess(result -> circuitBreaker.onSuccess())
+                    .doOnError(e -> {
+                        if (isRetryable(e)) {
+                            circuitBreaker.onFailure(probe);
+                        } else {
+                            circuitBreaker.onSuccess();
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        if (probe) {
+                            circuitBreaker.onProbeCancel();
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Returns a gateway with the same settings but its own bucket and circuit, for another upstream.
+     */
+    public UpstreamGateway newInstance() {
+        return new UpstreamGateway(requestsPerSecond, burst, maxRetries, minBackoff.toMillis(), maxBackoff.toMillis(),
+                failureThreshold, openDuration);
+    }
+
+    public boolean isOpen() {
+        return circuitBreaker.isOpen();
+    }
+
+    /**
+     * Whether {@code error} means CoinCap is unavailable or overloaded rather than rejecting the request.
+     */
+    public static boolean isRetryable(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            return response.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value()
+                    || response.getStatusCode().is5xxServerError();
+        }
+        return error instanceof TimeoutException || error instanceof WebClientRequestException;
+    }
+
+    private Mono<Void> permit() {
+        long waitNanos = tokenBucket.reserve(System.nanoTime());
+        return waitNanos <= 0 ? Mono.empty() : Mono.delay(Duration.ofNanos(waitNanos)).then();
+    }
+
+    private void throttleOnRateLimit(Throwable error) {
+        if (error instanceof WebClientResponseException response
+                && response.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            String retryAfter = response.getHeaders().getFirst("Retry-After");
+            if (retryAfter != null && retryAfter.chars().allMatch(Character::isDigit)) {
+                long pause = Duration.ofSeconds(Long.parseLong(retryAfter)).toNanos();
+                tokenBucket.pause(System.nanoTime(), pause);
+                logger.warn("CoinCap rate limit hit, pausing requests for {} s", retryAfter);
+            }
+        }
+    }
+
+    /**
+     * Reservation-based token bucket: every reservation is granted, and the returned delay keeps the
+     * granted permits within the rate once the burst is used up.
+     */
+    static final class TokenBucket {
+        private final long intervalNanos;
+        private final long burstNanos;
+        private long nextFree = Long.MIN_VALUE;
+
+        TokenBucket(double permitsPerSecond, int burst) {
+            this.intervalNanos = (long) (1_000_000_000L / permitsPerSecond);
+            this.burstNanos = intervalNanos * (burst - 1);
+        }
+
+        synchronized long reserve(long nowNanos) {
+            long start = nextFree == Long.MIN_VALUE ? nowNanos - burstNanos : Math.max(nextFree, nowNanos - burstNanos);
+            nextFree = start + intervalNanos;
+            return Math.max(0, start - nowNanos);
+        }
+
+        synchronized void pause(long nowNanos, long pauseNanos) {
+            nextFree = Math.max(nextFree, nowNanos + pauseNanos);
+        }
+    }
+
+    /**
+     * Closed, open, and half-open with a single probe in flight. Only the probe's own outcome ends the
+     * half-open state; calls admitted before the circuit opened may still finish while it is probing.
+     */
+    static final class CircuitBreaker {
+        enum Admission { CALL, PROBE, REJECTED }
+
+        private final int failureThreshold;
+        private final long openNanos;
+        private int failures;
+        private long openedAt;
+        private boolean open;
+        private boolean probing;
+
+        CircuitBreaker(int failureThreshold, long openNanos) {
+            this.failureThreshold = failureThreshold;
+            this.openNanos = openNanos;
+        }
+
+        synchronized Admission tryAcquire() {
+            if (!open) {
+                return Admission.CALL;
+            }
+            if (probing || System.nanoTime() - openedAt < openNanos) {
+                return Admission.REJECTED;
+            }
+            probing = true;
+            return Admission.PROBE;
+        }
+
+        synchronized void onSuccess() {
+            if (open) {
+                logger.info("CoinCap circuit closed");
+            }
+            failures = 0;
+            open = false;
+            probing = false;
+        }
+
+        synchronized void onFailure(boolean probe) {
+            failures++;
+            if (probe || (!open && failures >= failureThreshold)) {
+                if (!open) {
+                    logger.warn("CoinCap circuit opened after {} consecutive failures", failures);
+                }
+                open = true;
+                openedAt = System.nanoTime();
+            }
+            if (probe) {
+                probing = false;
+            }
+        }
+
+        synchronized void onProbeCancel() {
+            probing = false;
+        }
+
+        synchronized boolean isOpen() {
+            return open;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.assignment.cryptowallet.service;
+
+/**
+ * Raised without calling CoinCap while the {@link UpstreamGateway} circuit is open.
+ */
+public class UpstreamUnavailableException extends RuntimeException {
+
+    public UpstreamUnavailableException(String operation) {
+        super("CoinCap is unavailable, " + operation + " was not attempted");
+    }
+}
@@ -0,0 +1,40 @@
+package com.assignment.cryptowallet.service;
+
+import com.assignment.cryptowallet.model.Wallet;
+import com.assignment.cryptowallet.repository.WalletRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Persists one chunk of imported wallets, with their assets, in one transaction. Sequence-generated
+ * ids let Hibernate send the INSERTs as JDBC batches of {@code hibernate.jdbc.batch_size}; the
+ * persistence context is cleared afterwards so a long import does not accumulate managed entities.
+ */
+@Service
+public class WalletBatchWriter {
+    private final WalletRepository walletRepository;
+    private final EntityManager entityManager;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    public WalletBatchWriter(WalletRepository walletRepository,
+                             EntityManager entityManager,
+                             ApplicationEventPublisher eventPublisher) {
+        this.walletRepository = walletRepository;
+        this.entityManager = entityManager;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @Transactional
+    public void writeWallets(List<Wallet> wallets) {
+        walletRepository.saveAll(wallets);
+        walletRepository.flush();
+        entityManager.clear();
+        wallets.forEach(wallet -> eventPublisher.publishEvent(new WalletRegisteredEvent(wallet.getId(), wallet.getAssets())));
+    }
+}
@@ -0,0 +1,123 @@
+package com.assignment.cryptowallet.service;
+
+import com.assignment.cryptowallet.dto.AssetDto;
+import com.assignment.cryptowallet.dto.WalletDto;
+import com.assignment.cryptowallet.dto.WalletImportReport;
+import com.assignment.cryptowallet.mapper.WalletMapper;
+import com.assignment.cryptowallet.model.Wallet;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+
+/**
+ * Imports wallets from a JSON array or newline-delimited JSON stream without holding the whole
+ * payload in memory. Wallets are written in chunks of {@code wallet.import.batch-size}; each distinct
+ * symbol is resolved once per import, the first time a chunk contains it.
+ */
+@Service
+public class WalletImportService {
+    private static final Logger logger = LoggerFactory.getLogger(WalletImportService.class);
+    private final ObjectReader walletReader;
+    private final WalletMapper walletMapper;
+    private final CryptoService cryptoService;
+    private final WalletBatchWriter walletBatchWriter;
+    @Value("${wallet.import.batch-size:1000}")
+    private int batchSize;
+
+    @Autowired
+    public WalletImportService(ObjectMapper objectMapper,
+                               WalletMapper walletMapper,
+                               CryptoService cryptoService,
+                               WalletBatchWriter walletBatchWriter) {
+        this.walletReader = objectMapper.readerFor(WalletDto.class);
+        this.walletMapper = walletMapper;
+        this.cryptoService = cryptoService;
+        this.walletBatchWriter = walletBatchWriter;
+    }
+
+    public WalletImportReport importWallets(InputStream body) throws IOException {
+        long start = System.nanoTime();
+        Set<String> seenSymbols = new HashSet<>();
+        Set<String> pricedSymbols = new HashSet<>();
+        List<WalletDto> chunk = new ArrayList<>(batchSize);
+        int wallets = 0;
+        int assets = 0;
+        int rejected = 0;
+
+        try (MappingIterator<WalletDto> values = walletReader.readValues(body)) {
+            while (values.hasNextValue()) {
+                WalletDto walletDto = values.nextValue();
+                if (!isValid(walletDto)) {
+                    rejected++;
+                    continue;
+                }
+                chunk.add(walletDto);
+                if (chunk.size() >= batchSize) {
+                    assets += writeChunk(chunk, seenSymbols, pricedSymbols);
+                    wallets += chunk.size();
+                    chunk.clear();
+                }
+            }
+        }
+        if (!chunk.isEmpty()) {
+            assets += writeChunk(chunk, seenSymbols, pricedSymbols);
+            wallets += chunk.size();
+        }
+
+        long elapsedNanos = System.nanoTime() - start;
+        List<String> unresolved = seenSymbols.stream()
+                .filter(symbol -> !pricedSymbols.contains(symbol))
+                .sorted()
+                .toList();
+        double walletsPerSecond = elapsedNanos == 0 ? 0 : wallets * 1_000_000_000.0 / elapsedNanos;
+        logger.info("Imported {} wallets with {} assets in {} ms ({} wallets/s), rejected {}, unresolved symbols {}",
+                wallets, assets, elapsedNanos / 1_000_000, Math.round(walletsPerSecond), rejected, unresolved);
+        return new WalletImportReport(wallets, assets, rejected, unresolved, elapsedNanos / 1_000_000, walletsPerSecond);
+    }
+
+    private int writeChunk(List<WalletDto> chunk, Set<String> seenSymbols, Set<String> pricedSymbols) {
+        Set<String> newSymbols = new LinkedHashSet<>();
+        chunk.forEach(walletDto -> walletDto.assets().forEach(asset -> {
+            if (!seenSymbols.contains(asset.symbol())) {
+                newSymbols.add(asset.symbol());
+            }
+        }));
+        if (!newSymbols.isEmpty()) {
+            pricedSymbols.addAll(cryptoService.registerCurrencies(newSymbols));
+            seenSymbols.addAll(newSymbols);
+        }
+
+        List<Wallet> wallets = new ArrayList<>(chunk.size());
+        int assets = 0;
+        for (WalletDto walletDto : chunk) {
+            Wallet wallet = walletMapper.toEntity(walletDto);
+            wallet.getAssets().forEach(asset -> asset.setWallet(wallet));
+            assets += wallet.getAssets().size();
+            wallets.add(wallet);
+        }
+        walletBatchWriter.writeWallets(wallets);
+        return assets;
+    }
+
+    private static boolean isValid(WalletDto walletDto) {
+        if (walletDto == null || walletDto.assets() == null || walletDto.assets().isEmpty()) {
+            return false;
+        }
+        for (AssetDto asset : walletDto.assets()) {
+            if (asset == null || asset.symbol() == null || asset.quantity() == null
+                    || asset.price() == null || asset.price().signum() <= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,11 @@
+package com.assignment.cryptowallet.service;
+
+import com.assignment.cryptowallet.model.Asset;
+
+import java.util.List;
+
+/**
+ * Published by {@link CryptoService} once a wallet and its assets have been saved.
+ */
+public record WalletRegisteredEvent(Long walletId, List<Asset> assets) {
+}
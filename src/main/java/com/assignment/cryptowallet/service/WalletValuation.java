@@ -0,0 +1,213 @@
+package com.assignment.cryptowallet.service;
+
+import com.assignment.cryptowallet.dto.ResponseDto;
+import com.assignment.cryptowallet.model.Asset;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Running aggregates of one wallet: the unrounded total, each asset's applied price and performance,
+ * and the positions of the best and worst performers. A price change adjusts the total by the delta
+ * of the affected assets; the wallet is rescanned only when its current best falls or its worst rises.
+ * Results match {@link PortfolioStatistics#calculate} over the priced assets, ties included.
+ * Totals and performances are kept in {@link FixedPoint}, with BigDecimal only for unrepresentable values.
+ * Every change republishes an immutable snapshot, so readers never take the lock.
+ */
+final class WalletValuation {
+    private final String[] symbols;
+    private final BigDecimal[] quantities;
+    private final BigDecimal[] purchasePrices;
+    private final BigDecimal[] prices;
+    private final long[] scaledQuantities;
+    private final long[] scaledPurchasePrices;
+    private final long[] scaledPrices;
+    private final long[] priceFractions;
+    private final FixedPoint.Performances performances;
+    private final Map<String, int[]> positions = new HashMap<>();
+    private final FixedPoint.Total total = new FixedPoint.Total();
+    private int best = -1;
+    private int worst = -1;
+    private LocalDateTime lastUpdated;
+    private int rescans;
+    private volatile ResponseDto snapshot;
+
+    WalletValuation(List<Asset> assets, Map<String, BigDecimal> latestPrices, LocalDateTime lastUpdated) {
+        int size = assets.size();
+        symbols = new String[size];
+        quantities = new BigDecimal[size];
+        purchasePrices = new BigDecimal[size];
+        prices = new BigDecimal[size];
+        scaledQuantities = new long[size];
+        scaledPurchasePrices = new long[size];
+        scaledPrices = new long[size];
+        priceFractions = new long[size];
+        performances = new FixedPoint.Performances(size);
+        Map<String, List<Integer>> bySymbol = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            Asset asset = assets.get(i);
+            symbols[i] = asset.getSymbol();
+            quantities[i] = asset.getQuantity();
+            purchasePrices[i] = asset.getPrice();
+            scaledQuantities[i] = FixedPoint.toScaled(quantities[i]);
+            scaledPurchasePrices[i] = FixedPoint.toScaled(purchasePrices[i]);
+            bySymbol.computeIfAbsent(asset.getSymbol(), symbol -> new ArrayList<>()).add(i);
+        }
+        bySymbol.forEach((symbol, indexes) -> positions.put(symbol, indexes.stream().mapToInt(Integer::intValue).toArray()));
+        positions.forEach((symbol, indexes) -> {
+            BigDecimal price = latestPrices.get(symbol);
+            if (price != null) {
+                FixedPoint.Price scaledPrice = FixedPoint.toPrice(price);
+                for (int i : indexes) {
+                    setPrice(i, price, scaledPrice);
+                }
+            }
+        });
+        rescan();
+        rescans = 0;
+        this.lastUpdated = lastUpdated;
+        snapshot = buildSnapshot();
+    }
+
+    Set<String> symbols() {
+        return positions.keySet();
+    }
+
+    BigDecimal quantity(String symbol) {
+        BigDecimal quantity = BigDecimal.ZERO;
+        for (int i : positions.getOrDefault(symbol, new int[0])) {
+            quantity = quantity.add(quantities[i]);
+        }
+        return quantity;
+    }
+
+    boolean applyPrice(String symbol, BigDecimal price, LocalDateTime updateTime) {
+        return applyPrice(symbol, price, FixedPoint.toPrice(price), updateTime);
+    }
+
+    /**
+     * Applies a new price of {@code symbol}, given with its {@link FixedPoint#toPrice} value; returns
+     * {@code false} if nothing changed.
+     */
+    synchronized boolean applyPrice(String symbol, BigDecimal price, FixedPoint.Price scaledPrice, LocalDateTime updateTime) {
+        int[] indexes = positions.get(symbol);
+        if (indexes == null) {
+            return false;
+        }
+        boolean changed = false;
+        boolean rescan = false;
+        for (int i : indexes) {
+            if (prices[i] != null && samePrice(i, price, scaledPrice)) {
+                continue;
+            }
+            long previousPercent = performances.percent(i);
+            BigDecimal previousPerformance = previousPercent == FixedPoint.UNREPRESENTABLE ? performances.get(i) : null;
+            setPrice(i, price, scaledPrice);
+            changed = true;
+            if (i == best) {
+                rescan |= performances.compare(i, previousPercent, previousPerformance) < 0;
+            } else if (best < 0 || outranks(i, best, 1)) {
+                best = i;
+            }
+            if (i == worst) {
+                rescan |= performances.compare(i, previousPercent, previousPerformance) > 0;
+            } else if (worst < 0 || outranks(i, worst, -1)) {
+                worst = i;
+            }
+        }
+        if (rescan) {
+            rescan();
+        }
+        if (changed) {
+            lastUpdated = updateTime;
+            snapshot = buildSnapshot();
+        }
+        return changed;
+    }
+
+    /**
+     * Returns the current valuation, or {@code null} while none of the assets has a price.
+     */
+    ResponseDto snapshot() {
+        return snapshot;
+    }
+
+    synchronized int rescans() {
+        return rescans;
+    }
+
+    private ResponseDto buildSnapshot() {
+        if (best < 0) {
+            return null;
+        }
+        Set<String> unresolved = new LinkedHashSet<>();
+        for (int i = 0; i < symbols.length; i++) {
+            if (prices[i] == null) {
+                unresolved.add(symbols[i]);
+            }
+        }
+        return new ResponseDto(total.toBigDecimal().setScale(2, RoundingMode.HALF_UP),
+                symbols[best], performances.get(best),
+                symbols[worst], performances.get(worst),
+                lastUpdated, List.copyOf(unresolved));
+    }
+
+    private boolean samePrice(int i, BigDecimal price, FixedPoint.Price scaledPrice) {
+        if (scaledPrices[i] != FixedPoint.UNREPRESENTABLE && scaledPrice.units() != FixedPoint.UNREPRESENTABLE) {
+            return scaledPrices[i] == scaledPrice.units() && priceFractions[i] == scaledPrice.fraction();
+        }
+        return prices[i].compareTo(price) == 0;
+    }
+
+    private void setPrice(int i, BigDecimal price, FixedPoint.Price scaledPrice) {
+        if (prices[i] != null) {
+            if (scaledQuantities[i] != FixedPoint.UNREPRESENTABLE && scaledPrices[i] != FixedPoint.UNREPRESENTABLE) {
+                total.subtract(scaledQuantities[i], scaledPrices[i], priceFractions[i]);
+            } else {
+                total.subtract(quantities[i].multiply(prices[i]));
+            }
+        }
+        if (scaledQuantities[i] != FixedPoint.UNREPRESENTABLE && scaledPrice.units() != FixedPoint.UNREPRESENTABLE) {
+            total.add(scaledQuantities[i], scaledPrice.units(), scaledPrice.fraction());
+        } else {
+            total.add(quantities[i].multiply(price));
+        }
+        prices[i] = price;
+        scaledPrices[i] = scaledPrice.units();
+        priceFractions[i] = scaledPrice.fraction();
+        performances.set(i, scaledPrice.units(), scaledPrice.fraction(), scaledPurchasePrices[i], price, purchasePrices[i]);
+    }
+
+    private void rescan() {
+        rescans++;
+        best = -1;
+        worst = -1;
+        for (int i = 0; i < prices.length; i++) {
+            if (prices[i] == null) {
+                continue;
+            }
+            if (best < 0 || performances.compare(i, best) > 0) {
+                best = i;
+            }
+            if (worst < 0 || performances.compare(i, worst) < 0) {
+                worst = i;
+            }
+        }
+    }
+
+    /**
+     * Whether asset {@code i} beats the current holder {@code j} in {@code direction} (1 best, -1 worst);
+     * on equal performance the earlier asset wins, as in a single forward scan.
+     */
+    private boolean outranks(int i, int j, int direction) {
+        int comparison = performances.compare(i, j) * direction;
+        return comparison > 0 || (comparison == 0 && i < j);
+    }
+}
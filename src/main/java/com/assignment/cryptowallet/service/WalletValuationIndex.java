@@ -0,0 +1,189 @@
+package com.assignment.cryptowallet.service;
+
+import com.assignment.cryptowallet.dto.ResponseDto;
+import com.assignment.cryptowallet.model.Asset;
+import com.assignment.cryptowallet.repository.AssetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Valuations of every wallet kept up to date from price refreshes. Wallets are indexed by the symbols
+ * they hold, so a refresh only touches the wallets holding a changed symbol and each of those is
+ * adjusted incrementally (see {@link WalletValuation}). A rebuild streams the asset table into a fresh
+ * index and swaps it in; wallets registered while it streams are replayed onto it before the swap.
+ * Refreshes and the catch-ups after a registration or rebuild apply prices under {@code refreshLock}:
+ * a refresh caches its price before publishing its event, so whichever of the two runs second reads and
+ * applies the newest price, and a catch-up never overwrites a newer price or update time.
+ */
+@Component
+public class WalletValuationIndex {
+    private static final Logger logger = LoggerFactory.getLogger(WalletValuationIndex.class);
+    private final AssetRepository assetRepository;
+    private final PriceCache priceCache;
+    private final Object refreshLock = new Object();
+    private volatile Wallets indexed = new Wallets();
+    private Map<Long, WalletValuation> registeredDuringRebuild;
+
+    @Autowired
+    public WalletValuationIndex(AssetRepository assetRepository, PriceCache priceCache) {
+        this.assetRepository = assetRepository;
+        this.priceCache = priceCache;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        synchronized (this) {
+            registeredDuringRebuild = new LinkedHashMap<>();
+        }
+        Wallets rebuilt = new Wallets();
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            Map<Long, List<Asset>> assetsByWallet = new LinkedHashMap<>();
+            Set<String> symbols = new HashSet<>();
+            try (Stream<AssetRepository.Holding> holdings = assetRepository.streamHoldings()) {
+                holdings.forEach(holding -> {
+                    assetsByWallet.computeIfAbsent(holding.getWalletId(), walletId -> new ArrayList<>())
+                            .add(new Asset(holding.getSymbol(), holding.getQuantity(), holding.getPrice()));
+                    symbols.add(holding.getSymbol());
+                });
+            }
+            Map<String, BigDecimal> prices = priceCache.getPrices(symbols);
+            assetsByWallet.forEach((walletId, assets) -> rebuilt.index(walletId, new WalletValuation(assets, prices, now)));
+            synchronized (this) {
+                registeredDuringRebuild.forEach(rebuilt::index);
+                indexed = rebuilt;
+            }
+        } finally {
+            synchronized (this) {
+                registeredDuringRebuild = null;
+            }
+        }
+        // catch up with refreshes that were applied to the previous index while this one was built
+        synchronized (refreshLock) {
+            rebuilt.holders.forEach((symbol, holding) -> priceCache.getPrice(symbol).ifPresent(price -> {
+                FixedPoint.Price scaledPrice = FixedPoint.toPrice(price);
+                holding.forEach(wallet -> wallet.applyPrice(symbol, price, scaledPrice, now));
+            }));
+        }
+        logger.info("Indexed {} wallets holding {} symbols in {} ms",
+                rebuilt.wallets.size(), rebuilt.holders.size(), System.currentTimeMillis() - start);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onWalletRegistered(WalletRegisteredEvent event) {
+        Map<String, BigDecimal> prices = priceCache.getCachedPrices(event.assets().stream().map(Asset::getSymbol).toList());
+        LocalDateTime now = LocalDateTime.now();
+        WalletValuation wallet = new WalletValuation(event.assets(), prices, now);
+        synchronized (this) {
+            indexed.index(event.walletId(), wallet);
+            if (registeredDuringRebuild != null) {
+                registeredDuringRebuild.put(event.walletId(), wallet);
+            }
+        }
+        // catch up with a refresh that completed between reading the prices and indexing the wallet
+        synchronized (refreshLock) {
+            wallet.symbols().forEach(symbol -> priceCache.getPrice(symbol)
+                    .ifPresent(price -> wallet.applyPrice(symbol, price, now)));
+        }
+    }
+
+    /**
+     * Runs ahead of other refresh listeners so that they observe the updated valuations.
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onPriceRefreshed(PriceRefreshedEvent event) {
+        int revalued = 0;
+        synchronized (refreshLock) {
+            for (String symbol : event.symbols()) {
+                Set<WalletValuation> holding = indexed.holders.get(symbol);
+                Optional<BigDecimal> price = priceCache.getPrice(symbol);
+                if (holding == null || price.isEmpty()) {
+                    continue;
+                }
+                FixedPoint.Price scaledPrice = FixedPoint.toPrice(price.get());
+                for (WalletValuation wallet : holding) {
+                    if (wallet.applyPrice(symbol, price.get(), scaledPrice, event.updateTime())) {
+                        revalued++;
+                    }
+                }
+            }
+        }
+        logger.debug("Applied {} changed symbols to {} wallet holdings", event.symbols().size(), revalued);
+    }
+
+    /**
+     * Returns the latest valuation snapshot of the wallet with a single map lookup, empty if the wallet
+     * is unknown or none of its assets has a price yet.
+     */
+    public Optional<ResponseDto> valuation(Long walletId) {
+        WalletValuation wallet = indexed.wallets.get(walletId);
+        return wallet == null ? Optional.empty() : Optional.ofNullable(wallet.snapshot());
+    }
+
+    public boolean holdsAny(Long walletId, Collection<String> symbols) {
+        WalletValuation wallet = indexed.wallets.get(walletId);
+        return wallet != null && symbols.stream().anyMatch(wallet.symbols()::contains);
+    }
+
+    /**
+     * Total quantity of {@code symbol} held across all indexed wallets.
+     */
+    public BigDecimal heldQuantity(String symbol) {
+        return indexed.heldQuantities.getOrDefault(symbol, BigDecimal.ZERO);
+    }
+
+    public boolean contains(Long walletId) {
+        return indexed.wallets.containsKey(walletId);
+    }
+
+    public int size() {
+        return indexed.wallets.size();
+    }
+
+    int rescans(Long walletId) {
+        return indexed.wallets.get(walletId).rescans();
+    }
+
+    /**
+     * Valuations by wallet id together with the wallets holding each symbol and the total held quantities.
+     */
+    private static final class Wallets {
+        private final Map<Long, WalletValuation> wallets = new ConcurrentHashMap<>();
+        private final Map<String, Set<WalletValuation>> holders = new ConcurrentHashMap<>();
+        private final Map<String, BigDecimal> heldQuantities = new ConcurrentHashMap<>();
+
+        void index(Long walletId, WalletValuation wallet) {
+            WalletValuation previous = wallets.put(walletId, wallet);
+            if (previous != null) {
+                previous.symbols().forEach(symbol -> {
+                    Set<WalletValuation> holding = holders.get(symbol);
+                    if (holding != null) {
+                        holding.remove(previous);
+                    }
+                    heldQuantities.merge(symbol, previous.quantity(symbol).negate(), BigDecimal::add);
+                });
+            }
+            wallet.symbols().forEach(symbol -> {
+                holders.computeIfAbsent(symbol, key -> ConcurrentHashMap.newKeySet()).add(wallet);
+                heldQuantities.merge(symbol, wallet.quantity(symbol), BigDecimal::add);
+            });
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.assignment.cryptowallet.service;
+
+import com.assignment.cryptowallet.dto.ResponseDto;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Pushes wallet valuations to subscribers whenever {@link PriceUpdateScheduler} refreshes prices, reading
+ * them from the {@link WalletValuationIndex}, which is updated before this listener runs.
+ * Subscribers of the same wallet share one pipeline that replays the latest valuation to
+ * late joiners and hands valuations off the refresh thread once; each subscriber only holds a queue
+ * slot, never a thread, and slow subscribers skip to the newest valuation instead of buffering.
+ * The pipeline is counted per subscriber and dropped when its last subscriber leaves.
+ */
+@Component
+public class WalletValuationStream {
+    private static final Logger logger = LoggerFactory.getLogger(WalletValuationStream.class);
+    private final WalletValuationIndex walletValuationIndex;
+    private final Sinks.Many<PriceRefreshedEvent> refreshes = Sinks.many().multicast().directBestEffort();
+    private final Map<Long, WalletFeed> walletValuations = new ConcurrentHashMap<>();
+
+    private static final class WalletFeed {
+        private final Flux<ResponseDto> valuations;
+        private int subscribers;
+
+        private WalletFeed(Flux<ResponseDto> valuations) {
+            this.valuations = valuations;
+        }
+    }
+
+    @Autowired
+    public WalletValuationStream(WalletValuationIndex walletValuationIndex) {
+        this.walletValuationIndex = walletValuationIndex;
+    }
+
+    public Flux<ServerSentEvent<ResponseDto>> subscribe(Long walletId) {
+        return Flux.defer(() -> {
+                    WalletFeed feed = walletValuations.compute(walletId, (id, existing) -> {
+                        WalletFeed joined = existing != null ? existing : new WalletFeed(valuations(id));
+                        joined.subscribers++;
+                        return joined;
+                    });
+                    return feed.valuations.doFinally(signal -> release(walletId, feed));
+                })
+                .onBackpressureLatest()
+                .map(valuation -> ServerSentEvent.builder(valuation).event("valuation").build());
+    }
+
+    @EventListener
+    public void onPriceRefreshed(PriceRefreshedEvent event) {
+        Sinks.EmitResult result = refreshes.tryEmitNext(event);
+        if (result.isFailure()) {
+            logger.warn("Dropped price refresh of {} symbols: {}", event.symbols().size(), result);
+        }
+    }
+
+    public int activeWallets() {
+        return walletValuations.size();
+    }
+
+    private Flux<ResponseDto> valuations(Long walletId) {
+        return Flux.concat(
+                        Mono.fromSupplier(() -> walletValuationIndex.valuation(walletId)),
+                        refreshes.asFlux()
+                                .filter(event -> walletValuationIndex.holdsAny(walletId, event.symbols()))
+                                .map(event -> walletValuationIndex.valuation(walletId)))
+                .flatMap(Mono::justOrEmpty)
+                .publishOn(Schedulers.boundedElastic())
+                .replay(1)
+                .refCount();
+    }
+
+    private void release(Long walletId, WalletFeed feed) {
+        walletValuations.computeIfPresent(walletId, (id, current) -> {
+            if (current != feed) {
+                return current;
+            }
+            return --current.subscribers == 0 ? null : current;
+        });
+    }
+}
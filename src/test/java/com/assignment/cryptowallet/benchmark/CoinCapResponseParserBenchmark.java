@@ -0,0 +1,86 @@
+package com.assignment.cryptowallet.benchmark;
+
+import com.assignment.cryptowallet.service.CoinCapResponseParser;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CoinCapResponseParserBenchmark {
+
+    private byte[] search;
+    private byte[] history;
+    private byte[] assets;
+
+    @Setup
+    public void setUp() throws IOException {
+        search = load("search-btc.json");
+        history = load("history-bitcoin.json");
+        assets = load("assets.json");
+    }
+
+    @Benchmark
+    public String searchTreeModel() throws IOException {
+        JsonNode data = new ObjectMapper().readTree(new String(search)).path("data");
+        return data.isArray() && !data.isEmpty() ? data.get(0).path("name").asText() : null;
+    }
+
+    @Benchmark
+    public String searchStreaming() {
+        return CoinCapResponseParser.firstName(search);
+    }
+
+    @Benchmark
+    public BigDecimal historyTreeModel() throws IOException {
+        JsonNode data = new ObjectMapper().readTree(new String(history)).path("data");
+        return data.isArray() && !data.isEmpty() ? new BigDecimal(data.get(0).path("priceUsd").asText()) : null;
+    }
+
+    @Benchmark
+    public BigDecimal historyStreaming() {
+        return CoinCapResponseParser.firstPriceUsd(history);
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> assetsTreeModel() throws IOException {
+        Map<String, BigDecimal> prices = new HashMap<>();
+        for (JsonNode asset : new ObjectMapper().readTree(new String(assets)).path("data")) {
+            if (asset.hasNonNull("priceUsd")) {
+                prices.put(asset.path("id").asText(), new BigDecimal(asset.path("priceUsd").asText()));
+            }
+        }
+        return prices;
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> assetsStreaming() {
+        return CoinCapResponseParser.pricesById(assets);
+    }
+
+    private static byte[] load(String name) throws IOException {
+        try (InputStream in = CoinCapResponseParserBenchmark.class.getResourceAsStream("/coincap/" + name)) {
+            return in.readAllBytes();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(CoinCapResponseParserBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,100 @@
+package com.assignment.cryptowallet.benchmark;
+
+import com.assignment.cryptowallet.Configuration.ExecutorMode;
+import com.assignment.cryptowallet.mapper.WalletMapper;
+import com.assignment.cryptowallet.repository.CurrencyRepository;
+import com.assignment.cryptowallet.repository.WalletRepository;
+import com.assignment.cryptowallet.service.CryptoService;
+import com.assignment.cryptowallet.service.CurrencyNameCache;
+import com.assignment.cryptowallet.service.PriceCache;
+import com.assignment.cryptowallet.support.FakePriceProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time for {@link CryptoService#registerCurrencies} to discover {@code currencyCount} new symbols, each a
+ * name search and a history lookup of {@code latencyMillis} against a {@link FakePriceProvider}, with the
+ * task executor in each {@link ExecutorMode} and {@code parallelism} concurrent discoveries. The platform
+ * pool is sized like {@code SchedulerConfig.taskExecutor}: {@code task.executor.pool-size} (3), raised to
+ * the discovery parallelism.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ExecutorModeBenchmark {
+    private static final int POOL_SIZE = 3;
+
+    @Param({"platform", "virtual"})
+    private String mode;
+
+    @Param({"10", "100"})
+    private int currencyCount;
+
+    @Param({"8", "64"})
+    private int parallelism;
+
+    @Param({"20"})
+    private long latencyMillis;
+
+    private ExecutorService taskExecutor;
+    private FakePriceProvider priceProvider;
+    private Set<String> symbols;
+    private CryptoService cryptoService;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        taskExecutor = ExecutorMode.of(mode).newExecutor(Math.max(POOL_SIZE, parallelism));
+        priceProvider = new FakePriceProvider("stub").latency(Duration.ofMillis(latencyMillis));
+        symbols = new LinkedHashSet<>();
+        for (int i = 0; i < currencyCount; i++) {
+            priceProvider.asset("coin-" + i, "C" + i, BigDecimal.valueOf(1 + i));
+            symbols.add("C" + i);
+        }
+    }
+
+    /**
+     * Fresh caches for every run, so each one discovers all symbols.
+     */
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        CurrencyRepository currencyRepository = Mockito.mock(CurrencyRepository.class);
+        cryptoService = new CryptoService(priceProvider, Mockito.mock(WalletRepository.class), currencyRepository,
+                Mockito.mock(WalletMapper.class), new PriceCache(currencyRepository), taskExecutor,
+                new CurrencyNameCache(priceProvider, 86_400_000, 60_000, 10_000, 0), event -> {
+                }, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cryptoService, "historyStart", 60_000);
+        ReflectionTestUtils.setField(cryptoService, "discoveryParallelism", parallelism);
+        ReflectionTestUtils.setField(cryptoService, "discoveryTimeout", 60_000L);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        taskExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public int registerCurrencies() {
+        return cryptoService.registerCurrencies(symbols).size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ExecutorModeBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,113 @@
+package com.assignment.cryptowallet.benchmark;
+
+import com.assignment.cryptowallet.model.Asset;
+import com.assignment.cryptowallet.service.PortfolioStatistics;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PortfolioStatisticsBenchmark {
+
+    @Param({"10", "1000", "10000", "100000"})
+    private int assetCount;
+
+    private List<Asset> assets;
+    private Map<String, BigDecimal> prices;
+
+    /**
+     * Latest prices carry 16 decimals like CoinCap's {@code priceUsd}.
+     */
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        assets = new ArrayList<>(assetCount);
+        prices = new HashMap<>();
+        for (int i = 0; i < assetCount; i++) {
+            String symbol = "SYM" + i;
+            assets.add(new Asset(symbol,
+                    BigDecimal.valueOf(random.nextInt(1_000_000), 4),
+                    BigDecimal.valueOf(1 + random.nextInt(10_000_000), 2)));
+            prices.put(symbol, BigDecimal.valueOf(1 + random.nextInt(10_000_000), 2)
+                    .add(BigDecimal.valueOf(random.nextLong(100_000_000_000_000L), 16)));
+        }
+    }
+
+    @Benchmark
+    public PortfolioStatistics singlePass() {
+        return PortfolioStatistics.calculate(assets, prices);
+    }
+
+    /**
+     * The BigDecimal single pass {@link PortfolioStatistics#calculate} replaced, as a baseline for its fixed-point path.
+     */
+    @Benchmark
+    public void bigDecimalSinglePass(Blackhole blackhole) {
+        BigDecimal total = BigDecimal.ZERO;
+        BigDecimal bestPerformance = null;
+        BigDecimal worstPerformance = null;
+        for (Asset asset : assets) {
+            BigDecimal latestPrice = prices.get(asset.getSymbol());
+            total = total.add(asset.getQuantity().multiply(latestPrice));
+            BigDecimal performance = PortfolioStatistics.performance(latestPrice, asset.getPrice());
+            if (bestPerformance == null || performance.compareTo(bestPerformance) > 0) {
+                bestPerformance = performance;
+            }
+            if (worstPerformance == null || performance.compareTo(worstPerformance) < 0) {
+                worstPerformance = performance;
+            }
+        }
+        blackhole.consume(total.setScale(2, RoundingMode.HALF_UP));
+        blackhole.consume(bestPerformance);
+        blackhole.consume(worstPerformance);
+    }
+
+    @Benchmark
+    public void performance(Blackhole blackhole) {
+        for (Asset asset : assets) {
+            blackhole.consume(PortfolioStatistics.performance(prices.get(asset.getSymbol()), asset.getPrice()));
+        }
+    }
+
+    @Benchmark
+    public void tripleScan(Blackhole blackhole) {
+        BigDecimal totalValue = assets.stream()
+                .map(asset -> asset.getQuantity().multiply(prices.get(asset.getSymbol())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add)
+                .setScale(2, RoundingMode.HALF_UP);
+        Asset bestAsset = assets.stream()
+                .max(Comparator.comparing(this::calculatePerformance))
+                .orElseThrow();
+        Asset worstAsset = assets.stream()
+                .min(Comparator.comparing(this::calculatePerformance))
+                .orElseThrow();
+        blackhole.consume(totalValue);
+        blackhole.consume(calculatePerformance(bestAsset));
+        blackhole.consume(calculatePerformance(worstAsset));
+    }
+
+    private BigDecimal calculatePerformance(Asset asset) {
+        return prices.get(asset.getSymbol())
+                .subtract(asset.getPrice())
+                .divide(asset.getPrice(), 2, RoundingMode.HALF_UP)
+                .multiply(BigDecimal.valueOf(100));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PortfolioStatisticsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
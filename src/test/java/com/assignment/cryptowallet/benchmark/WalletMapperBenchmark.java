@@ -0,0 +1,55 @@
+package com.assignment.cryptowallet.benchmark;
+
+import com.assignment.cryptowallet.dto.AssetDto;
+import com.assignment.cryptowallet.dto.WalletDto;
+import com.assignment.cryptowallet.mapper.WalletMapper;
+import com.assignment.cryptowallet.mapper.WalletMapperImpl;
+import com.assignment.cryptowallet.model.Wallet;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WalletMapperBenchmark {
+
+    @Param({"10", "1000", "10000", "100000"})
+    private int assetCount;
+
+    private final WalletMapper walletMapper = new WalletMapperImpl();
+    private WalletDto walletDto;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<AssetDto> assets = new ArrayList<>(assetCount);
+        for (int i = 0; i < assetCount; i++) {
+            assets.add(new AssetDto("SYM" + i,
+                    BigDecimal.valueOf(random.nextInt(1_000_000), 4),
+                    BigDecimal.valueOf(1 + random.nextInt(10_000_000), 2)));
+        }
+        walletDto = new WalletDto(assets);
+    }
+
+    @Benchmark
+    public Wallet toEntity() {
+        return walletMapper.toEntity(walletDto);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(WalletMapperBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,91 @@
+package com.assignment.cryptowallet.controller;
+
+import com.assignment.cryptowallet.dto.ResponseDto;
+import com.assignment.cryptowallet.service.HoldingsIndex;
+import com.assignment.cryptowallet.service.WalletValuationIndex;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class WalletControllerTest {
+
+    @Mock
+    private WalletValuationIndex walletValuationIndex;
+
+    @Mock
+    private HoldingsIndex holdingsIndex;
+
+    @InjectMocks
+    private WalletController walletController;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        mockMvc = MockMvcBuilders.standaloneSetup(walletController).build();
+    }
+
+    @Test
+    void getValuation_ShouldReturnSnapshot_ForIndexedWallet() throws Exception {
+        when(walletValuationIndex.valuation(1L)).thenReturn(Optional.of(new ResponseDto(new BigDecimal("39400.00"),
+                "BTC", new BigDecimal("17.00"), "ETH", new BigDecimal("10.00"), LocalDateTime.now(), List.of())));
+
+        mockMvc.perform(get("/api/wallet/{id}/valuation", 1L))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalValue").value(39400.00))
+                .andExpect(jsonPath("$.bestAsset").value("BTC"));
+    }
+
+    @Test
+    void getValuation_ShouldReturnNotFound_ForUnknownWallet() throws Exception {
+        when(walletValuationIndex.valuation(2L)).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/wallet/{id}/valuation", 2L))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void getBook_ShouldReturnAggregationsFromHoldingsIndex() throws Exception {
+        when(holdingsIndex.assetsUnderManagement()).thenReturn(Map.of("BTC", new BigDecimal("70000.00")));
+        when(holdingsIndex.costBasis()).thenReturn(Map.of("BTC", new BigDecimal("60000.00")));
+        when(holdingsIndex.topWallets(3)).thenReturn(List.of(
+                new HoldingsIndex.WalletValue(7L, new BigDecimal("35000.00")),
+                new HoldingsIndex.WalletValue(2L, new BigDecimal("20000.00"))));
+
+        mockMvc.perform(get("/api/wallet/book").param("top", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.assetsUnderManagement.BTC").value(70000.00))
+                .andExpect(jsonPath("$.costBasis.BTC").value(60000.00))
+                .andExpect(jsonPath("$.topWallets[0].walletId").value(7))
+                .andExpect(jsonPath("$.topWallets[1].value").value(20000.00));
+    }
+
+    @Test
+    void getBook_ShouldRejectTopOutOfRange() throws Exception {
+        mockMvc.perform(get("/api/wallet/book").param("top", String.valueOf(WalletController.MAX_TOP_WALLETS + 1)))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/wallet/book").param("top", "-1"))
+                .andExpect(status().isBadRequest());
+
+        verify(holdingsIndex, never()).topWallets(anyInt());
+    }
+}
@@ -0,0 +1,189 @@
+package com.assignment.cryptowallet.controller;
+
+import com.assignment.cryptowallet.dto.AssetDto;
+import com.assignment.cryptowallet.dto.ResponseDto;
+import com.assignment.cryptowallet.dto.WalletDto;
+import com.assignment.cryptowallet.model.Currency;
+import com.assignment.cryptowallet.repository.CurrencyRepository;
+import com.assignment.cryptowallet.service.PriceUpdateScheduler;
+import com.assignment.cryptowallet.support.CoinCapStubServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Starts the application against an in-process CoinCap stub with injected latency and errors, registers
+ * wallets through {@code POST /api/wallet} from concurrent clients while the scheduler refreshes in the
+ * background, then runs refresh cycles over the whole catalog and logs throughput and latency percentiles.
+ * Tagged {@code loadtest}: run with {@code mvn -Ploadtest test}; sizes, stub latency and error rate can be
+ * overridden with {@code -Dloadtest.*} system properties.
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "currency.catalog.enabled=false",
+        "price-journal.enabled=false",
+        "currency.update.duration=1000",
+        "currency.update.min-interval=1",
+        "currency.update.max-interval=1",
+        "currency.update.request-budget=0",
+        "coincap.gateway.requests-per-second=100000",
+        "coincap.gateway.burst=1000",
+        "coincap.gateway.backoff-min=10",
+        "coincap.gateway.backoff-max=100"
+})
+class WalletRegistrationLoadTest {
+    private static final Logger logger = LoggerFactory.getLogger(WalletRegistrationLoadTest.class);
+    private static final int CURRENCIES = Integer.getInteger("loadtest.currencies", 500);
+    private static final int CLIENTS = Integer.getInteger("loadtest.clients", 32);
+    private static final int WALLETS_PER_CLIENT = Integer.getInteger("loadtest.wallets-per-client", 100);
+    private static final int MAX_ASSETS = Integer.getInteger("loadtest.max-assets", 8);
+    private static final int REFRESH_CYCLES = Integer.getInteger("loadtest.refresh-cycles", 20);
+    private static final long STUB_LATENCY = Long.getLong("loadtest.stub.latency", 20);
+    private static final long STUB_JITTER = Long.getLong("loadtest.stub.jitter", 30);
+    private static final double STUB_ERROR_RATE = Double.parseDouble(System.getProperty("loadtest.stub.error-rate", "0.02"));
+
+    private static final CoinCapStubServer coinCap = startStub();
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private PriceUpdateScheduler priceUpdateScheduler;
+
+    @Autowired
+    private CurrencyRepository currencyRepository;
+
+    @DynamicPropertySource
+    static void coinCapProperties(DynamicPropertyRegistry registry) {
+        registry.add("coincap.api.url", coinCap::baseUrl);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        coinCap.close();
+    }
+
+    @Test
+    void registerWalletsAndRefresh_UnderLoad() throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger failures = new AtomicInteger();
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int client = 0; client < CLIENTS; client++) {
+            long seed = client;
+            results.add(clients.submit(() -> {
+                Random random = new Random(seed);
+                long[] latencies = new long[WALLETS_PER_CLIENT];
+                start.await();
+                for (int i = 0; i < WALLETS_PER_CLIENT; i++) {
+                    WalletDto wallet = randomWallet(random);
+                    long begin = System.nanoTime();
+                    ResponseEntity<ResponseDto> response = restTemplate.postForEntity("/api/wallet", wallet, ResponseDto.class);
+                    latencies[i] = System.nanoTime() - begin;
+                    if (!response.getStatusCode().is2xxSuccessful()) {
+                        failures.incrementAndGet();
+                    }
+                }
+                return latencies;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        long[] latencies = collect(results);
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        clients.shutdown();
+
+        Arrays.sort(latencies);
+        logger.info("wallet registration: {} clients, {} wallets in {} s, {} wallets/s, p50 {} ms, p95 {} ms, "
+                        + "p99 {} ms, {} failed", CLIENTS, latencies.length, String.format("%.1f", seconds),
+                String.format("%.0f", latencies.length / seconds), percentileMillis(latencies, 0.50),
+                percentileMillis(latencies, 0.95), percentileMillis(latencies, 0.99), failures.get());
+        assertEquals(0, failures.get());
+
+        LocalDateTime refreshStart = LocalDateTime.now();
+        long[] cycles = new long[REFRESH_CYCLES];
+        for (int i = 0; i < REFRESH_CYCLES; i++) {
+            long cycleBegin = System.nanoTime();
+            priceUpdateScheduler.fetchAndUpdatePrices();
+            cycles[i] = System.nanoTime() - cycleBegin;
+        }
+        Arrays.sort(cycles);
+        List<Currency> currencies = currencyRepository.findAll().stream()
+                .filter(currency -> currency.getName() != null)
+                .toList();
+        long refreshed = currencies.stream()
+                .filter(currency -> currency.getUpdateTime() != null && currency.getUpdateTime().isAfter(refreshStart))
+                .count();
+        logger.info("price refresh: {} currencies, {} cycles, p50 {} ms, p99 {} ms, {} refreshed; "
+                        + "stub served {} requests, {} injected failures", currencies.size(), REFRESH_CYCLES,
+                percentileMillis(cycles, 0.50), percentileMillis(cycles, 0.99), refreshed,
+                coinCap.requestCount(), coinCap.rejectedCount());
+        assertFalse(currencies.isEmpty());
+        assertEquals(currencies.size(), refreshed);
+    }
+
+    private static WalletDto randomWallet(Random random) {
+        List<AssetDto> assets = new ArrayList<>();
+        for (int i = 0; i < 1 + random.nextInt(MAX_ASSETS); i++) {
+            assets.add(new AssetDto("LC" + random.nextInt(CURRENCIES),
+                    BigDecimal.valueOf(1 + random.nextInt(1000), 2),
+                    BigDecimal.valueOf(1 + random.nextInt(50_000))));
+        }
+        return new WalletDto(assets);
+    }
+
+    private static long[] collect(List<Future<long[]>> results) throws Exception {
+        long[] latencies = new long[CLIENTS * WALLETS_PER_CLIENT];
+        int offset = 0;
+        for (Future<long[]> result : results) {
+            long[] clientLatencies = result.get(10, TimeUnit.MINUTES);
+            System.arraycopy(clientLatencies, 0, latencies, offset, clientLatencies.length);
+            offset += clientLatencies.length;
+        }
+        return latencies;
+    }
+
+    private static CoinCapStubServer startStub() {
+        try {
+            CoinCapStubServer stub = CoinCapStubServer.start()
+                    .latency(STUB_LATENCY, STUB_JITTER)
+                    .errorRate(STUB_ERROR_RATE, 503);
+            for (int i = 0; i < CURRENCIES; i++) {
+                stub.asset("Loadcoin" + i, "LC" + i, BigDecimal.valueOf(1 + i, 2));
+            }
+            return stub;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static double percentileMillis(long[] sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+    }
+}
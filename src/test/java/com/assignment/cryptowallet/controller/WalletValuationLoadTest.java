@@ -0,0 +1,203 @@
+package com.assignment.cryptowallet.controller;
+
+import com.assignment.cryptowallet.dto.ResponseDto;
+import com.assignment.cryptowallet.model.Asset;
+import com.assignment.cryptowallet.model.Currency;
+import com.assignment.cryptowallet.service.PriceCache;
+import com.assignment.cryptowallet.service.PriceRefreshedEvent;
+import com.assignment.cryptowallet.service.WalletRegisteredEvent;
+import com.assignment.cryptowallet.service.WalletValuationIndex;
+import com.assignment.cryptowallet.support.CoinCapStubServer;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Concurrent readers of {@code GET /api/wallet/{id}/valuation} while a price is refreshed every
+ * {@code loadtest.refresh-interval} ms, logging throughput and latency percentiles over HTTP and for the
+ * handler alone, which must meet the readme targets of p50 &lt; 1 ms and p99 &lt; 5 ms. Tagged {@code loadtest}:
+ * run with {@code mvn -Ploadtest test}; sizes can be overridden with {@code -Dloadtest.*} system properties.
+ */
+@Tag("loadtest")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "currency.catalog.enabled=false",
+        "price-journal.enabled=false"
+})
+class WalletValuationLoadTest {
+    private static final Logger logger = LoggerFactory.getLogger(WalletValuationLoadTest.class);
+    private static final int WALLETS = Integer.getInteger("loadtest.wallets", 10_000);
+    private static final int READERS = Integer.getInteger("loadtest.readers", 32);
+    private static final int READS_PER_READER = Integer.getInteger("loadtest.reads-per-reader", 500);
+    private static final long REFRESH_INTERVAL = Long.getLong("loadtest.refresh-interval", 10);
+    private static final long FIRST_WALLET = 1_000_000;
+    private static final double P50_TARGET_MILLIS = 1;
+    private static final double P99_TARGET_MILLIS = 5;
+    private static final String[] SYMBOLS = {"BTC", "ETH", "SOL", "ADA", "XRP", "DOGE", "DOT", "LTC"};
+
+    private static final CoinCapStubServer coinCap = startStub();
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private PriceCache priceCache;
+
+    @Autowired
+    private WalletValuationIndex walletValuationIndex;
+
+    @Autowired
+    private WalletController walletController;
+
+    @DynamicPropertySource
+    static void coinCapProperties(DynamicPropertyRegistry registry) {
+        registry.add("coincap.api.url", coinCap::baseUrl);
+    }
+
+    @AfterAll
+    static void stopStub() {
+        coinCap.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        Random random = new Random(42);
+        for (String symbol : SYMBOLS) {
+            priceCache.put(new Currency(symbol, symbol, BigDecimal.valueOf(1 + random.nextInt(50_000))));
+        }
+        for (long walletId = FIRST_WALLET; walletId < FIRST_WALLET + WALLETS; walletId++) {
+            List<Asset> assets = new ArrayList<>();
+            for (int i = 0; i < 1 + random.nextInt(8); i++) {
+                assets.add(new Asset(SYMBOLS[random.nextInt(SYMBOLS.length)],
+                        BigDecimal.valueOf(1 + random.nextInt(1000), 2),
+                        BigDecimal.valueOf(1 + random.nextInt(50_000))));
+            }
+            walletValuationIndex.onWalletRegistered(new WalletRegisteredEvent(walletId, assets));
+        }
+    }
+
+    @Test
+    void getValuation_UnderConcurrentReaders() throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread refresher = new Thread(() -> {
+            Random random = new Random(7);
+            while (running.get()) {
+                String symbol = SYMBOLS[random.nextInt(SYMBOLS.length)];
+                priceCache.put(new Currency(symbol, symbol, BigDecimal.valueOf(1 + random.nextInt(50_000))));
+                walletValuationIndex.onPriceRefreshed(new PriceRefreshedEvent(Set.of(symbol), LocalDateTime.now()));
+                try {
+                    Thread.sleep(REFRESH_INTERVAL);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        refresher.start();
+        try {
+            read("valuation reads", walletId -> restTemplate.getForEntity(
+                    "/api/wallet/{id}/valuation", ResponseDto.class, walletId));
+            long[] handler = read("valuation handler", walletController::getValuation);
+
+            assertTrue(percentileMillis(handler, 0.50) < P50_TARGET_MILLIS,
+                    "handler p50 " + percentileMillis(handler, 0.50) + " ms");
+            assertTrue(percentileMillis(handler, 0.99) < P99_TARGET_MILLIS,
+                    "handler p99 " + percentileMillis(handler, 0.99) + " ms");
+        } finally {
+            running.set(false);
+            refresher.join();
+        }
+    }
+
+    /**
+     * Runs {@code READERS} concurrent readers of random wallets, logs throughput and percentiles and
+     * returns the sorted latencies in nanoseconds; fails if any read is not a 2xx.
+     */
+    private long[] read(String label, Function<Long, ResponseEntity<ResponseDto>> valuation) throws Exception {
+        ExecutorService readers = Executors.newFixedThreadPool(READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger failures = new AtomicInteger();
+        List<Future<long[]>> results = new ArrayList<>();
+        for (int reader = 0; reader < READERS; reader++) {
+            long seed = reader;
+            results.add(readers.submit(() -> {
+                Random random = new Random(seed);
+                long[] latencies = new long[READS_PER_READER];
+                start.await();
+                for (int i = 0; i < READS_PER_READER; i++) {
+                    long walletId = FIRST_WALLET + random.nextInt(WALLETS);
+                    long begin = System.nanoTime();
+                    ResponseEntity<ResponseDto> response = valuation.apply(walletId);
+                    latencies[i] = System.nanoTime() - begin;
+                    if (!response.getStatusCode().is2xxSuccessful()) {
+                        failures.incrementAndGet();
+                    }
+                }
+                return latencies;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        long[] latencies = new long[READERS * READS_PER_READER];
+        int offset = 0;
+        for (Future<long[]> result : results) {
+            long[] readerLatencies = result.get(10, TimeUnit.MINUTES);
+            System.arraycopy(readerLatencies, 0, latencies, offset, readerLatencies.length);
+            offset += readerLatencies.length;
+        }
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        readers.shutdown();
+
+        Arrays.sort(latencies);
+        logger.info("{}: {} readers, {} requests in {} s, {} requests/s, p50 {} ms, p95 {} ms, "
+                        + "p99 {} ms, {} failed", label, READERS, latencies.length, String.format("%.1f", seconds),
+                String.format("%.0f", latencies.length / seconds), percentileMillis(latencies, 0.50),
+                percentileMillis(latencies, 0.95), percentileMillis(latencies, 0.99), failures.get());
+        assertEquals(0, failures.get(), label);
+        return latencies;
+    }
+
+    private static CoinCapStubServer startStub() {
+        try {
+            CoinCapStubServer stub = CoinCapStubServer.start();
+            for (String symbol : SYMBOLS) {
+                stub.asset(symbol, symbol, BigDecimal.ONE);
+            }
+            return stub;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static double percentileMillis(long[] sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+        return sortedNanos[Math.max(0, index)] / 1_000_000.0;
+    }
+}
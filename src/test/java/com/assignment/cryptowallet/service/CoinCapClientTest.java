@@ -0,0 +1,144 @@
+package com.assignment.cryptowallet.service;
+
+import com.assignment.cryptowallet.support.CoinCapStubServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoinCapClientTest {
+
+    private CoinCapStubServer coinCap;
+    private CoinCapClient coinCapClient;
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        meterRegistry = new SimpleMeterRegistry();
+        coinCap = CoinCapStubServer.start()
+                .asset("Bitcoin", "BTC", new BigDecimal("65000.12"))
+                .asset("Ethereum", "ETH", new BigDecimal("3000.50"));
+        coinCapClient = client(new UpstreamGateway(1000, 100, 3, 10, 100, 5, 30_000));
+    }
+
+    @AfterEach
+    void tearDown() {
+        coinCap.close();
+    }
+
+    @Test
+    void fetchPrice_ShouldReadPriceUsd() {
+        assertEquals(new BigDecimal("65000.12"), coinCapClient.fetchPrice("bitcoin").block());
+    }
+
+    @Test
+    void fetchPrice_ShouldFail_WhenAssetIsUnknown() {
+        assertThrows(WebClientResponseException.NotFound.class, () -> coinCapClient.fetchPrice("unknown").block());
+    }
+
+    @Test
+    void fetchPrices_ShouldFanOutOneRequestPerBatch() {
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 250; i++) {
+            coinCap.asset("Coin" + i, "C" + i, BigDecimal.valueOf(i + 1));
+            ids.add("coin" + i);
+        }
+
+        Map<String, BigDecimal> prices = coinCapClient.fetchPrices(ids, 25).block();
+
+        assertEquals(250, prices.size());
+        assertEquals(BigDecimal.valueOf(250), prices.get("coin249"));
+        assertEquals(10, coinCap.requestCount());
+    }
+
+    @Test
+    void fetchBatch_ShouldRetryInjected429s() {
+        coinCap.failNext(2, 429);
+
+        Map<String, BigDecimal> prices = coinCapClient.fetchBatch(List.of("bitcoin", "ethereum")).block();
+
+        assertEquals(2, prices.size());
+        assertEquals(3, coinCap.requestCount());
+    }
+
+    @Test
+    void fetchPrices_ShouldKeepThroughputAtUpstreamLimit() {
+        coinCap.rateLimit(20);
+        CoinCapClient limited = client(new UpstreamGateway(15, 5, 5, 50, 1000, 5, 30_000));
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            coinCap.asset("Coin" + i, "C" + i, BigDecimal.valueOf(i + 1));
+            ids.add("coin" + i);
+        }
+
+        Map<String, BigDecimal> prices = limited.fetchPrices(ids, 2).block();
+
+        assertEquals(60, prices.size());
+        assertTrue(coinCap.rejectedCount() <= 5, coinCap.rejectedCount() + " requests rejected");
+    }
+
+    @Test
+    void fetchPrice_ShouldFailFast_WhenCoinCapIsDown_EvenWithPriceSeenBefore() {
+        assertEquals(new BigDecimal("65000.12"), coinCapClient.fetchPrice("bitcoin").block());
+        coinCap.failNext(1000, 503);
+
+        for (int i = 0; i < 5; i++) {
+            assertThrows(WebClientResponseException.ServiceUnavailable.class,
+                    () -> coinCapClient.fetchPrice("bitcoin").block());
+        }
+        assertThrows(UpstreamUnavailableException.class, () -> coinCapClient.fetchPrice("bitcoin").block());
+        assertEquals(1 + 5 * 4, coinCap.requestCount());
+    }
+
+    @Test
+    void historicalPrice_ShouldFail_WhenCoinCapIsDown_EvenWithLastKnownPrice() {
+        assertEquals(new BigDecimal("65000.12"), coinCapClient.fetchPrice("bitcoin").block());
+        coinCap.failNext(1000, 503);
+
+        assertThrows(WebClientResponseException.ServiceUnavailable.class,
+                () -> coinCapClient.historicalPrice("bitcoin", 1L, 2L).block());
+    }
+
+    @Test
+    void searchAndHistory_ShouldUseConfiguredBaseUrl() {
+        assertEquals("Ethereum", coinCapClient.searchName("ETH").block());
+        assertEquals(new BigDecimal("3000.50"), coinCapClient.historicalPrice("ethereum", 1L, 2L).block());
+        assertNull(coinCapClient.searchName("NOPE").block());
+        assertTrue(coinCap.requestedUris().contains("/assets/ethereum/history?interval=m1&start=1&end=2"));
+    }
+
+    @Test
+    void requests_ShouldBeTimedByEndpointAndOutcome() {
+        coinCapClient.fetchPrice("bitcoin").block();
+        coinCapClient.fetchPrice("ethereum").block();
+        coinCapClient.searchName("ETH").block();
+        coinCap.failNext(1, 404);
+        assertThrows(WebClientResponseException.class, () -> coinCapClient.historicalPrice("bitcoin", 1L, 2L).block());
+
+        assertEquals(2, timer("asset", "success").count());
+        assertEquals(1, timer("search", "success").count());
+        assertEquals(1, timer("history", "error").count());
+        assertNull(meterRegistry.find("coincap.requests").tag("endpoint", "history").tag("outcome", "success").timer());
+    }
+
+    private Timer timer(String endpoint, String outcome) {
+        return meterRegistry.get("coincap.requests")
+                .tags("upstream", "coincap", "endpoint", endpoint, "outcome", outcome)
+                .timer();
+    }
+
+    private CoinCapClient client(UpstreamGateway upstreamGateway) {
+        return new CoinCapClient(WebClient.create(coinCap.baseUrl()), upstreamGateway, 4, 5000, meterRegistry);
+    }
+}
@@ -0,0 +1,73 @@
+package com.assignment.cryptowallet.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoinCapResponseParserTest {
+
+    @Test
+    void firstName_ShouldReadFirstSearchResult() {
+        assertEquals("Bitcoin", CoinCapResponseParser.firstName(resource("search-btc.json")));
+    }
+
+    @Test
+    void firstName_ShouldReturnNull_WhenNoResults() {
+        assertNull(CoinCapResponseParser.firstName(bytes("{\"data\":[],\"timestamp\":1}")));
+        assertNull(CoinCapResponseParser.firstName(bytes("{\"timestamp\":1}")));
+    }
+
+    @Test
+    void firstPriceUsd_ShouldReadHistoryAndSingleAssetResponses() {
+        assertEquals(new BigDecimal("66496.9072995269380044"),
+                CoinCapResponseParser.firstPriceUsd(resource("history-bitcoin.json")));
+        assertEquals(new BigDecimal("3000.50"),
+                CoinCapResponseParser.firstPriceUsd(bytes("{\"data\":{\"id\":\"ethereum\",\"tags\":[\"x\"],\"priceUsd\":\"3000.50\"}}")));
+    }
+
+    @Test
+    void firstPriceUsd_ShouldReturnNull_WhenPriceIsMissing() {
+        assertNull(CoinCapResponseParser.firstPriceUsd(bytes("{\"data\":[{\"id\":\"bitcoin\",\"priceUsd\":null}]}")));
+    }
+
+    @Test
+    void pricesById_ShouldReadEveryListedAsset() {
+        Map<String, BigDecimal> prices = CoinCapResponseParser.pricesById(resource("assets.json"));
+
+        assertEquals(100, prices.size());
+        assertEquals(new BigDecimal("22668.3002999900018040"), prices.get("bitcoin"));
+    }
+
+    @Test
+    void namesBySymbol_ShouldKeepHighestRankedName() {
+        Map<String, String> names = CoinCapResponseParser.namesBySymbol(bytes(
+                "{\"data\":[{\"symbol\":\"ABC\",\"name\":\"First\"},{\"symbol\":\"ABC\",\"name\":\"Second\"}]}"));
+
+        assertEquals(Map.of("ABC", "First"), names);
+        assertEquals("Ethereum", CoinCapResponseParser.namesBySymbol(resource("assets.json")).get("ETH"));
+    }
+
+    @Test
+    void parse_ShouldFail_WhenBodyIsMalformed() {
+        assertThrows(UncheckedIOException.class, () -> CoinCapResponseParser.pricesById(bytes("{\"data\":[{\"id\":")));
+    }
+
+    static byte[] resource(String name) {
+        try (InputStream in = CoinCapResponseParserTest.class.getResourceAsStream("/coincap/" + name)) {
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
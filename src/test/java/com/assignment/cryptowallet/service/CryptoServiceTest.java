@@ -1,5 +1,6 @@
 package com.assignment.cryptowallet.service;
 
+import com.assignment.cryptowallet.Configuration.ExecutorMode;
 import com.assignment.cryptowallet.dto.AssetDto;
 import com.assignment.cryptowallet.dto.ResponseDto;
 import com.assignment.cryptowallet.dto.WalletDto;
@@ -7,22 +8,32 @@ import com.assignment.cryptowallet.mapper.WalletMapper;
 import com.assignment.cryptowallet.model.Asset;
 import com.assignment.cryptowallet.model.Currency;
 import com.assignment.cryptowallet.model.Wallet;
-import com.assignment.cryptowallet.repository.AssetRepository;
 import com.assignment.cryptowallet.repository.CurrencyRepository;
 import com.assignment.cryptowallet.repository.WalletRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.*;
-import org.springframework.http.HttpStatus;
-import org.springframework.http.ResponseEntity;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.util.ReflectionTestUtils;
-import org.springframework.web.client.RestTemplate;
+import reactor.core.publisher.Mono;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -30,7 +41,7 @@ import static org.mockito.Mockito.*;
 class CryptoServiceTest {
 
     @Mock
-    private RestTemplate restTemplate;
+    private CoinCapClient coinCapClient;
 
     @Mock
     private WalletRepository walletRepository;
@@ -39,37 +50,34 @@ class CryptoServiceTest {
     private CurrencyRepository currencyRepository;
 
     @Mock
-    private AssetRepository assetRepository;
+    WalletMapper walletMapper;
 
     @Mock
-    WalletMapper walletMapper;
+    private ApplicationEventPublisher eventPublisher;
+
+    private PriceCache priceCache;
+
+    private ExecutorService taskExecutor;
+
+    private MeterRegistry meterRegistry;
 
-    @InjectMocks
     private CryptoService cryptoService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
-        ReflectionTestUtils.setField(cryptoService, "apiUrl", "https://api.coincap.io/v2");
+        priceCache = new PriceCache(currencyRepository);
+        taskExecutor = ExecutorMode.PLATFORM.newExecutor(3);
+        meterRegistry = new SimpleMeterRegistry();
+        cryptoService = new CryptoService(coinCapClient, walletRepository, currencyRepository, walletMapper, priceCache, taskExecutor,
+                new CurrencyNameCache(coinCapClient, 86_400_000, 60_000, 10_000, 0), eventPublisher, meterRegistry);
+        ReflectionTestUtils.setField(cryptoService, "discoveryParallelism", 8);
+        ReflectionTestUtils.setField(cryptoService, "discoveryTimeout", 10000L);
     }
 
-    @Test
-    void fetchPrice_ShouldReturnPrice() {
-        // Mock API response
-        String symbol = "BTC";
-        String url = "https://api.coincap.io/v2/assets/" + symbol.toLowerCase();
-        Map<String, Object> mockData = Map.of("priceUsd", "65000.00");
-        Map<String, Object> mockResponse = Map.of("data", mockData);
-
-        when(restTemplate.getForEntity(url, Map.class)).thenReturn(new ResponseEntity<>(mockResponse, HttpStatus.OK));
-
-        // Call the method under test
-        CompletableFuture<BigDecimal> priceFuture = cryptoService.fetchPrice(symbol);
-
-        // Assertions
-        assertNotNull(priceFuture);
-        assertEquals(BigDecimal.valueOf(65000.00).setScale(2), priceFuture.join());
-        verify(restTemplate, times(1)).getForEntity(url, Map.class);
+    @AfterEach
+    void tearDown() {
+        taskExecutor.shutdownNow();
     }
 
     @Test
@@ -100,13 +108,6 @@ class CryptoServiceTest {
         when(currencyRepository.findBySymbol("ETH")).thenReturn(Optional.of(currency2));
         when(currencyRepository.findBySymbolIn(anyList())).thenReturn(Optional.of(List.of(currency1, currency2)));
 
-        // Mock Repository Behavior for Assets
-        when(assetRepository.save(any(Asset.class))).thenAnswer(invocation -> {
-            Asset savedAsset = invocation.getArgument(0);
-            savedAsset.setId((long) (Math.random() * 100)); // Simulate database-generated ID
-            return savedAsset;
-        });
-
         // Call the method under test
         ResponseDto responseDto = cryptoService.registerWallet(walletDto);
 
@@ -154,7 +155,12 @@ class CryptoServiceTest {
         assertEquals("ETH", responseDto.worstAsset());
 
         verify(walletRepository, times(1)).save(wallet);
-        verify(currencyRepository, times(6)).findBySymbol(anyString());
+        verify(currencyRepository, never()).findBySymbol(anyString());
+        verify(currencyRepository, times(1)).findBySymbolIn(anyList());
+
+        ArgumentCaptor<WalletRegisteredEvent> registered = ArgumentCaptor.forClass(WalletRegisteredEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(registered.capture());
+        assertEquals(List.of(asset1, asset2), registered.getValue().assets());
     }
 
     @Test
@@ -201,7 +207,8 @@ class CryptoServiceTest {
 
         // Verify interactions
         verify(walletRepository, times(1)).save(wallet);
-        verify(currencyRepository, times(6)).findBySymbol(anyString());
+        verify(currencyRepository, never()).findBySymbol(anyString());
+        verify(currencyRepository, times(1)).findBySymbolIn(anyList());
     }
 
     @Test
@@ -219,34 +226,13 @@ class CryptoServiceTest {
         when(walletMapper.toEntity(walletDto)).thenReturn(wallet);
 
         // Mock getCurrencyName response (used in getCurrencyPrice)
-        String searchUrlBTC = "https://api.coincap.io/v2/assets?search=BTC&limit=1";
-        String searchUrlETH = "https://api.coincap.io/v2/assets?search=ETH&limit=1";
-
-        String mockResponseBTC = """
-                {
-                    "data": [
-                        { "name": "Bitcoin" }
-                    ]
-                }
-                """;
-
-        String mockResponseETH = """
-                {
-                    "data": [
-                        { "name": "Ethereum" }
-                    ]
-                }
-                """;
-
-        when(restTemplate.getForEntity(searchUrlBTC, String.class)).thenReturn(new ResponseEntity<>(mockResponseBTC, HttpStatus.OK));
-        when(restTemplate.getForEntity(searchUrlETH, String.class)).thenReturn(new ResponseEntity<>(mockResponseETH, HttpStatus.OK));
-
-        when(restTemplate.getForEntity(anyString(), eq(String.class))).thenReturn(new ResponseEntity<>("{\"data\":[{\"priceUsd\":\"35000.00\"}]}", HttpStatus.OK));
-        Currency btcCurrency = new Currency("Bitcoin", "BTC", BigDecimal.valueOf(35000.00));
-        Currency ethCurrency = new Currency("Ethereum", "ETH", BigDecimal.valueOf(2200.00));
-        when(currencyRepository.findBySymbol("BTC")).thenReturn(Optional.of(btcCurrency));
-        when(currencyRepository.findBySymbol("ETH")).thenReturn(Optional.of(ethCurrency));
-        when(currencyRepository.findBySymbolIn(anyList())).thenReturn(Optional.of(List.of(btcCurrency, ethCurrency)));
+        when(coinCapClient.searchName("BTC")).thenReturn(Mono.just("Bitcoin"));
+        when(coinCapClient.searchName("ETH")).thenReturn(Mono.just("Ethereum"));
+
+        when(coinCapClient.historicalPrice(eq("bitcoin"), anyLong(), anyLong())).thenReturn(Mono.just(new BigDecimal("35000.00")));
+        when(coinCapClient.historicalPrice(eq("ethereum"), anyLong(), anyLong())).thenReturn(Mono.just(new BigDecimal("2200.00")));
+        // Neither currency is known yet, so both are discovered and then served from the price cache
+        when(currencyRepository.findBySymbolIn(anyList())).thenReturn(Optional.of(List.of()));
 
         // Call registerWallet (indirectly testing getCurrencyName and getCurrencyPrice)
         ResponseDto responseDto = cryptoService.registerWallet(walletDto);
@@ -260,7 +246,252 @@ class CryptoServiceTest {
         assertEquals(BigDecimal.valueOf(10.00).setScale(2), responseDto.worstPerformance());
 
         // Verify interactions
-        verify(currencyRepository, times(1)).saveAll(anyList()); // One for each asset
+        verify(currencyRepository, times(2)).save(any(Currency.class)); // One for each asset
+        verify(currencyRepository, never()).saveAll(anyList());
+        verify(currencyRepository, times(1)).findBySymbolIn(anyList());
+        verify(currencyRepository, never()).findBySymbol(anyString());
+        verify(walletRepository, times(1)).save(wallet);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 500})
+    void registerWallet_ShouldQueryCurrenciesOnce_RegardlessOfAssetCount(int assetCount) {
+        List<AssetDto> assetDtos = new ArrayList<>();
+        List<Asset> assets = new ArrayList<>();
+        List<Currency> currencies = new ArrayList<>();
+        for (int i = 0; i < assetCount; i++) {
+            String symbol = "SYM" + i;
+            assetDtos.add(new AssetDto(symbol, BigDecimal.ONE, BigDecimal.valueOf(100)));
+            assets.add(new Asset(symbol, BigDecimal.ONE, BigDecimal.valueOf(100)));
+            currencies.add(new Currency("Currency" + i, symbol, BigDecimal.valueOf(100 + i)));
+        }
+        WalletDto walletDto = new WalletDto(assetDtos);
+        Wallet wallet = new Wallet();
+        wallet.setAssets(assets);
+        when(walletMapper.toEntity(walletDto)).thenReturn(wallet);
+        when(currencyRepository.findBySymbolIn(anyList())).thenReturn(Optional.of(currencies));
+
+        ResponseDto responseDto = cryptoService.registerWallet(walletDto);
+
+        assertEquals("SYM" + (assetCount - 1), responseDto.bestAsset());
+        assertEquals("SYM0", responseDto.worstAsset());
+        verify(currencyRepository, times(1)).findBySymbolIn(anyList());
+        verify(currencyRepository, never()).findBySymbol(anyString());
+        verify(currencyRepository, never()).getCurrenciesBySymbol(anyString());
+        verifyNoInteractions(coinCapClient);
+    }
+
+    @Test
+    void registerWallet_ShouldNotQueryCurrencies_WhenPricesAreCached() {
+        AssetDto bitcoin = new AssetDto("BTC", BigDecimal.valueOf(1), BigDecimal.valueOf(30000.00));
+        AssetDto ethereum = new AssetDto("ETH", BigDecimal.valueOf(2), BigDecimal.valueOf(2000.00));
+        WalletDto walletDto = new WalletDto(List.of(bitcoin, ethereum));
+
+        Wallet wallet = new Wallet();
+        Asset asset1 = new Asset("BTC", BigDecimal.ONE, BigDecimal.valueOf(30000.00));
+        Asset asset2 = new Asset("ETH", BigDecimal.valueOf(2), BigDecimal.valueOf(2000.00));
+        wallet.setAssets(List.of(asset1, asset2));
+        when(walletMapper.toEntity(walletDto)).thenReturn(wallet);
+
+        priceCache.putAll(List.of(
+                new Currency("Bitcoin", "BTC", BigDecimal.valueOf(35000.00)),
+                new Currency("Ethereum", "ETH", BigDecimal.valueOf(2200.00))));
+
+        ResponseDto responseDto = cryptoService.registerWallet(walletDto);
+
+        assertEquals(BigDecimal.valueOf(39400.00).setScale(2), responseDto.totalValue());
+        verify(currencyRepository, never()).findBySymbolIn(anyList());
+        verify(currencyRepository, never()).findBySymbol(anyString());
+        verify(currencyRepository, never()).getCurrenciesBySymbol(anyString());
+        assertEquals(2, priceCache.getHitCount());
+        assertEquals(0, priceCache.getMissCount());
+        for (String phase : List.of("currencies", "valuation", "persist")) {
+            assertEquals(1, meterRegistry.get("wallet.registration").tag("phase", phase).timer().count());
+        }
+    }
+
+    @Test
+    void registerWallet_ShouldMatchBigDecimalCalculation_ForPricesBeyondEightDecimals() {
+        List<Asset> assets = List.of(
+                new Asset("BTC", BigDecimal.valueOf(10_000_000), new BigDecimal("0.1")),
+                new Asset("SHIB", new BigDecimal("123456789.123"), new BigDecimal("0.00001000")),
+                new Asset("ETH", new BigDecimal("2.5"), new BigDecimal("2000.00")));
+        List<Currency> currencies = List.of(
+                new Currency("Bitcoin", "BTC", new BigDecimal("0.1000000006")),
+                new Currency("Shiba Inu", "SHIB", new BigDecimal("0.000012345678901234")),
+                new Currency("Ethereum", "ETH", new BigDecimal("2200.123456789")));
+        WalletDto walletDto = new WalletDto(assets.stream()
+                .map(asset -> new AssetDto(asset.getSymbol(), asset.getQuantity(), asset.getPrice()))
+                .toList());
+        Wallet wallet = new Wallet();
+        wallet.setAssets(assets);
+        when(walletMapper.toEntity(walletDto)).thenReturn(wallet);
+        priceCache.putAll(currencies);
+
+        ResponseDto responseDto = cryptoService.registerWallet(walletDto);
+
+        BigDecimal expectedTotal = BigDecimal.ZERO;
+        for (int i = 0; i < assets.size(); i++) {
+            expectedTotal = expectedTotal.add(assets.get(i).getQuantity().multiply(currencies.get(i).getLatestPrice()));
+        }
+        assertEquals(expectedTotal.setScale(2, RoundingMode.HALF_UP), responseDto.totalValue());
+        assertEquals("SHIB", responseDto.bestAsset());
+        assertEquals(baselinePerformance(currencies.get(1).getLatestPrice(), assets.get(1).getPrice()), responseDto.bestPerformance());
+        assertEquals("BTC", responseDto.worstAsset());
+        assertEquals(baselinePerformance(currencies.get(0).getLatestPrice(), assets.get(0).getPrice()), responseDto.worstPerformance());
+    }
+
+    private static BigDecimal baselinePerformance(BigDecimal latestPrice, BigDecimal purchasePrice) {
+        return latestPrice.subtract(purchasePrice)
+                .divide(purchasePrice, 2, RoundingMode.HALF_UP)
+                .multiply(BigDecimal.valueOf(100));
+    }
+
+    @Test
+    void registerWallet_ShouldReportUnresolvedSymbols() {
+        AssetDto bitcoin = new AssetDto("BTC", BigDecimal.ONE, BigDecimal.valueOf(30000.00));
+        AssetDto junk = new AssetDto("JUNK", BigDecimal.TEN, BigDecimal.ONE);
+        WalletDto walletDto = new WalletDto(List.of(bitcoin, junk));
+
+        Wallet wallet = new Wallet();
+        wallet.setAssets(List.of(
+                new Asset("BTC", BigDecimal.ONE, BigDecimal.valueOf(30000.00)),
+                new Asset("JUNK", BigDecimal.TEN, BigDecimal.ONE)));
+        when(walletMapper.toEntity(walletDto)).thenReturn(wallet);
+
+        Currency btcCurrency = new Currency("Bitcoin", "BTC", BigDecimal.valueOf(35000.00));
+        when(currencyRepository.findBySymbolIn(anyList())).thenReturn(Optional.of(List.of(btcCurrency)));
+        when(coinCapClient.searchName("JUNK")).thenReturn(Mono.empty());
+
+        ResponseDto responseDto = cryptoService.registerWallet(walletDto);
+
+        assertEquals(BigDecimal.valueOf(35000.00).setScale(2), responseDto.totalValue());
+        assertEquals("BTC", responseDto.bestAsset());
+        assertEquals(List.of("JUNK"), responseDto.unresolvedSymbols());
+        verify(coinCapClient, never()).searchName("BTC");
+        verify(currencyRepository, never()).save(any(Currency.class));
         verify(walletRepository, times(1)).save(wallet);
     }
+
+    @Test
+    void registerWallet_ShouldStopWaitingForDiscovery_AfterDeadline() {
+        ReflectionTestUtils.setField(cryptoService, "discoveryTimeout", 200L);
+        AssetDto bitcoin = new AssetDto("BTC", BigDecimal.ONE, BigDecimal.valueOf(30000.00));
+        AssetDto slow = new AssetDto("SLOW", BigDecimal.ONE, BigDecimal.ONE);
+        WalletDto walletDto = new WalletDto(List.of(bitcoin, slow));
+
+        Wallet wallet = new Wallet();
+        wallet.setAssets(List.of(
+                new Asset("BTC", BigDecimal.ONE, BigDecimal.valueOf(30000.00)),
+                new Asset("SLOW", BigDecimal.ONE, BigDecimal.ONE)));
+        when(walletMapper.toEntity(walletDto)).thenReturn(wallet);
+
+        Currency btcCurrency = new Currency("Bitcoin", "BTC", BigDecimal.valueOf(35000.00));
+        when(currencyRepository.findBySymbolIn(anyList())).thenReturn(Optional.of(List.of(btcCurrency)));
+        when(coinCapClient.searchName("SLOW")).thenReturn(Mono.delay(Duration.ofSeconds(5))
+                .thenReturn("Slow"));
+
+        long start = System.nanoTime();
+        ResponseDto responseDto = cryptoService.registerWallet(walletDto);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(elapsedMillis < 5000, "registration waited " + elapsedMillis + " ms");
+        assertEquals(List.of("SLOW"), responseDto.unresolvedSymbols());
+        assertEquals("BTC", responseDto.bestAsset());
+    }
+
+    @Test
+    void registerWallet_ShouldBoundDiscoveryParallelism() {
+        taskExecutor.shutdownNow();
+        taskExecutor = ExecutorMode.VIRTUAL.newExecutor(0);
+        cryptoService = new CryptoService(coinCapClient, walletRepository, currencyRepository, walletMapper, priceCache, taskExecutor,
+                new CurrencyNameCache(coinCapClient, 86_400_000, 60_000, 10_000, 0), eventPublisher, meterRegistry);
+        ReflectionTestUtils.setField(cryptoService, "discoveryParallelism", 2);
+        ReflectionTestUtils.setField(cryptoService, "discoveryTimeout", 10000L);
+
+        List<AssetDto> assetDtos = new ArrayList<>();
+        List<Asset> assets = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            assetDtos.add(new AssetDto("NEW" + i, BigDecimal.ONE, BigDecimal.ONE));
+            assets.add(new Asset("NEW" + i, BigDecimal.ONE, BigDecimal.ONE));
+        }
+        WalletDto walletDto = new WalletDto(assetDtos);
+        Wallet wallet = new Wallet();
+        wallet.setAssets(assets);
+        when(walletMapper.toEntity(walletDto)).thenReturn(wallet);
+        when(currencyRepository.findBySymbolIn(anyList())).thenReturn(Optional.of(List.of()));
+
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(coinCapClient.searchName(anyString())).thenAnswer(invocation -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(50);
+            inFlight.decrementAndGet();
+            return Mono.just("Coin");
+        });
+        when(coinCapClient.historicalPrice(anyString(), anyLong(), anyLong()))
+                .thenReturn(Mono.just(new BigDecimal("2.00")));
+
+        ResponseDto responseDto = cryptoService.registerWallet(walletDto);
+
+        verify(coinCapClient, times(10)).searchName(anyString());
+        assertTrue(maxInFlight.get() <= 2, "max in flight was " + maxInFlight.get());
+        assertEquals(List.of(), responseDto.unresolvedSymbols());
+    }
+
+    @Test
+    void registerWallet_ShouldCoalesceConcurrentDiscoveriesOfSameSymbol() throws Exception {
+        when(currencyRepository.findBySymbolIn(anyList())).thenReturn(Optional.of(List.of()));
+        when(coinCapClient.searchName("NEW")).thenAnswer(invocation -> {
+            Thread.sleep(300);
+            return Mono.just("Newcoin");
+        });
+        when(coinCapClient.historicalPrice(eq("newcoin"), anyLong(), anyLong()))
+                .thenReturn(Mono.just(new BigDecimal("12.00")));
+
+        int registrations = 20;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService clients = Executors.newFixedThreadPool(registrations);
+        List<Future<ResponseDto>> responses = new ArrayList<>();
+        for (int i = 0; i < registrations; i++) {
+            AssetDto newcoin = new AssetDto("NEW", BigDecimal.ONE, BigDecimal.TEN);
+            WalletDto walletDto = new WalletDto(List.of(newcoin));
+            Wallet wallet = new Wallet();
+            wallet.setAssets(List.of(new Asset("NEW", BigDecimal.ONE, BigDecimal.TEN)));
+            when(walletMapper.toEntity(walletDto)).thenReturn(wallet);
+            responses.add(clients.submit(() -> {
+                start.await();
+                return cryptoService.registerWallet(walletDto);
+            }));
+        }
+        start.countDown();
+        for (Future<ResponseDto> response : responses) {
+            assertEquals(BigDecimal.valueOf(20.00).setScale(2), response.get().bestPerformance());
+        }
+        clients.shutdown();
+
+        verify(coinCapClient, times(1)).searchName("NEW");
+        verify(currencyRepository, times(1)).save(any(Currency.class));
+    }
+
+    @Test
+    void registerWallet_ShouldReuseExistingRow_WhenSymbolInsertedConcurrently() {
+        AssetDto newcoin = new AssetDto("NEW", BigDecimal.ONE, BigDecimal.TEN);
+        WalletDto walletDto = new WalletDto(List.of(newcoin));
+        Wallet wallet = new Wallet();
+        wallet.setAssets(List.of(new Asset("NEW", BigDecimal.ONE, BigDecimal.TEN)));
+        when(walletMapper.toEntity(walletDto)).thenReturn(wallet);
+
+        when(currencyRepository.findBySymbolIn(anyList())).thenReturn(Optional.of(List.of()));
+        when(coinCapClient.searchName("NEW")).thenReturn(Mono.just("Newcoin"));
+        when(coinCapClient.historicalPrice(eq("newcoin"), anyLong(), anyLong()))
+                .thenReturn(Mono.just(new BigDecimal("12.00")));
+        when(currencyRepository.save(any(Currency.class))).thenThrow(new DataIntegrityViolationException("duplicate symbol"));
+        when(currencyRepository.findBySymbol("NEW")).thenReturn(Optional.of(new Currency("Newcoin", "NEW", BigDecimal.valueOf(11.00))));
+
+        ResponseDto responseDto = cryptoService.registerWallet(walletDto);
+
+        assertEquals(BigDecimal.valueOf(10.00).setScale(2), responseDto.bestPerformance());
+        assertEquals(List.of(), responseDto.unresolvedSymbols());
+    }
 }
@@ -0,0 +1,91 @@
+package com.assignment.cryptowallet.service;
+
+import com.assignment.cryptowallet.model.Currency;
+import com.assignment.cryptowallet.repository.CurrencyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CurrencyCatalogTest {
+    private static final LocalDateTime UPDATE_TIME = LocalDateTime.of(2024, 10, 17, 12, 0, 0);
+
+    @Mock
+    private CurrencyRepository currencyRepository;
+
+    private Path directory;
+    private Path path;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        MockitoAnnotations.openMocks(this);
+        directory = Files.createTempDirectory("currency-catalog");
+        path = directory.resolve("catalog.bin");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        Files.deleteIfExists(path);
+        Files.delete(directory);
+    }
+
+    @Test
+    void load_ShouldRestoreSavedCatalog() {
+        when(currencyRepository.findAll()).thenReturn(List.of(
+                new Currency("Bitcoin", "BTC", new BigDecimal("67123.123456789012"), UPDATE_TIME),
+                new Currency("Ethereum", "ETH", new BigDecimal("2500.5"), UPDATE_TIME),
+                new Currency(null, "JUNK", null)));
+        new CurrencyCatalog(currencyRepository, new PriceCache(null), true, path).save();
+
+        when(currencyRepository.findBySymbolIn(anyList()))
+                .thenReturn(Optional.of(List.of(new Currency("Ethereum", "ETH", new BigDecimal("2600")))));
+        PriceCache priceCache = new PriceCache(null);
+        new CurrencyCatalog(currencyRepository, priceCache, true, path).load();
+
+        ArgumentCaptor<List<Currency>> saved = ArgumentCaptor.forClass(List.class);
+        verify(currencyRepository).saveAll(saved.capture());
+        assertEquals(List.of("BTC", "JUNK"), saved.getValue().stream().map(Currency::getSymbol).toList());
+        Currency bitcoin = saved.getValue().get(0);
+        assertEquals("Bitcoin", bitcoin.getName());
+        assertEquals(new BigDecimal("67123.123456789012"), bitcoin.getLatestPrice());
+        assertEquals(UPDATE_TIME, bitcoin.getUpdateTime());
+        assertNull(saved.getValue().get(1).getUpdateTime());
+
+        assertEquals(new BigDecimal("67123.123456789012"), priceCache.getPrice("BTC").orElseThrow());
+        assertTrue(priceCache.getPrice("ETH").isEmpty());
+        assertFalse(priceCache.contains("JUNK"));
+    }
+
+    @Test
+    void load_ShouldIgnoreMissingOrCorruptCatalog() throws IOException {
+        PriceCache priceCache = new PriceCache(null);
+        new CurrencyCatalog(currencyRepository, priceCache, true, path).load();
+
+        Files.write(path, new byte[]{1, 2, 3});
+        new CurrencyCatalog(currencyRepository, priceCache, true, path).load();
+
+        verifyNoInteractions(currencyRepository);
+        assertEquals(0, priceCache.size());
+    }
+
+    @Test
+    void snapshot_ShouldDoNothing_WhenDisabled() {
+        new CurrencyCatalog(currencyRepository, new PriceCache(null), false, path).snapshot();
+
+        verifyNoInteractions(currencyRepository);
+        assertFalse(Files.exists(path));
+    }
+}
@@ -0,0 +1,128 @@
+package com.assignment.cryptowallet.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.publisher.Mono;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CurrencyNameCacheTest {
+
+    @Mock
+    private PriceProvider priceProvider;
+
+    private MutableClock clock;
+    private CurrencyNameCache currencyNameCache;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        clock = new MutableClock();
+        currencyNameCache = new CurrencyNameCache(priceProvider, 10_000, 1_000, 3, 100, clock);
+    }
+
+    @Test
+    void resolve_ShouldCallLoaderOnce_UntilTtlExpires() {
+        AtomicInteger calls = new AtomicInteger();
+        Function<String, String> loader = symbol -> {
+            calls.incrementAndGet();
+            return "Bitcoin";
+        };
+
+        assertEquals("Bitcoin", currencyNameCache.resolve("BTC", loader));
+        assertEquals("Bitcoin", currencyNameCache.resolve("BTC", loader));
+        clock.advance(10_001);
+        assertEquals("Bitcoin", currencyNameCache.resolve("BTC", loader));
+
+        assertEquals(2, calls.get());
+        assertEquals(1, currencyNameCache.getHitCount());
+        assertEquals(2, currencyNameCache.getMissCount());
+    }
+
+    @Test
+    void resolve_ShouldRememberUnknownSymbols_ForNegativeTtl() {
+        AtomicInteger calls = new AtomicInteger();
+        Function<String, String> loader = symbol -> {
+            calls.incrementAndGet();
+            return null;
+        };
+
+        assertNull(currencyNameCache.resolve("JUNK", loader));
+        clock.advance(999);
+        assertNull(currencyNameCache.resolve("JUNK", loader));
+        assertEquals(1, calls.get());
+
+        clock.advance(2);
+        assertNull(currencyNameCache.resolve("JUNK", loader));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void resolve_ShouldNotCache_WhenLoaderFails() {
+        assertThrows(IllegalStateException.class, () -> currencyNameCache.resolve("BTC", symbol -> {
+            throw new IllegalStateException("upstream down");
+        }));
+
+        assertEquals("Bitcoin", currencyNameCache.resolve("BTC", symbol -> "Bitcoin"));
+        assertEquals(2, currencyNameCache.getMissCount());
+    }
+
+    @Test
+    void resolve_ShouldStayWithinMaxSize() {
+        for (int i = 0; i < 10; i++) {
+            currencyNameCache.resolve("SYM" + i, symbol -> "Name " + symbol);
+        }
+
+        assertTrue(currencyNameCache.size() <= 3);
+    }
+
+    @Test
+    void preload_ShouldFillCacheFromAssetListing() {
+        when(priceProvider.fetchSymbolNames(100)).thenReturn(Mono.just(Map.of("BTC", "Bitcoin", "ETH", "Ethereum")));
+
+        currencyNameCache.preload();
+
+        assertEquals("Ethereum", currencyNameCache.resolve("ETH", symbol -> fail("should be preloaded")));
+        assertEquals(1, currencyNameCache.getHitCount());
+        assertEquals(0, currencyNameCache.getMissCount());
+    }
+
+    private static class MutableClock extends Clock {
+        private long millis = 1_700_000_000_000L;
+
+        void advance(long delta) {
+            millis += delta;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
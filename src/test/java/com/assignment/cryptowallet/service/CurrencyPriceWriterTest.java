@@ -0,0 +1,64 @@
+package com.assignment.cryptowallet.service;
+
+import com.assignment.cryptowallet.dto.PriceWriteReport;
+import com.assignment.cryptowallet.model.Currency;
+import com.assignment.cryptowallet.repository.CurrencyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CurrencyPriceWriterTest {
+
+    @Mock
+    private CurrencyRepository currencyRepository;
+
+    private CurrencyPriceWriter currencyPriceWriter;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        currencyPriceWriter = new CurrencyPriceWriter(currencyRepository);
+    }
+
+    @Test
+    void writePrices_ShouldUpdateManagedRowsAndFlushOnce() {
+        LocalDateTime updateTime = LocalDateTime.now();
+        Currency bitcoin = currency(1L, "BTC", BigDecimal.valueOf(65000), updateTime);
+        Currency ethereum = currency(2L, "ETH", BigDecimal.valueOf(3000), updateTime);
+        Currency managedBitcoin = currency(1L, "BTC", BigDecimal.valueOf(60000), null);
+        Currency managedEthereum = currency(2L, "ETH", BigDecimal.valueOf(3000), updateTime);
+        when(currencyRepository.findAllById(anyCollection())).thenReturn(List.of(managedBitcoin, managedEthereum));
+
+        PriceWriteReport report = currencyPriceWriter.writePrices(List.of(bitcoin, ethereum));
+
+        assertEquals(1, report.rowsWritten());
+        assertEquals(BigDecimal.valueOf(65000), managedBitcoin.getLatestPrice());
+        assertEquals(updateTime, managedBitcoin.getUpdateTime());
+        verify(currencyRepository, times(1)).findAllById(anyCollection());
+        verify(currencyRepository, times(1)).flush();
+        verify(currencyRepository, never()).save(any(Currency.class));
+        verify(currencyRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void writePrices_ShouldSkipDatabase_WhenNothingToWrite() {
+        PriceWriteReport report = currencyPriceWriter.writePrices(List.of(new Currency("Bitcoin", "BTC", BigDecimal.ONE)));
+
+        assertEquals(0, report.rowsWritten());
+        verifyNoInteractions(currencyRepository);
+    }
+
+    private static Currency currency(Long id, String symbol, BigDecimal price, LocalDateTime updateTime) {
+        Currency currency = new Currency(symbol, symbol, price, updateTime);
+        currency.setId(id);
+        return currency;
+    }
+}
@@ -0,0 +1,215 @@
+package com.assignment.cryptowallet.service;
+
+import com.assignment.cryptowallet.model.Asset;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FixedPointTest {
+
+    @Test
+    void toScaled_ShouldRejectValuesThatDoNotFit() {
+        assertEquals(123_450_000_000L, FixedPoint.toScaled(new BigDecimal("1234.5")));
+        assertEquals(1L, FixedPoint.toScaled(new BigDecimal("0.00000001")));
+        assertEquals(100_000_000L, FixedPoint.toScaled(new BigDecimal("1.000000000000")));
+        assertEquals(0L, FixedPoint.toScaled(new BigDecimal("0E+30")));
+        assertEquals(FixedPoint.UNREPRESENTABLE, FixedPoint.toScaled(new BigDecimal("0.000000001")));
+        assertEquals(FixedPoint.UNREPRESENTABLE, FixedPoint.toScaled(new BigDecimal("100000000000")));
+        assertEquals(FixedPoint.UNREPRESENTABLE, FixedPoint.toScaled(null));
+    }
+
+    @Test
+    void toPrice_ShouldKeepCoinCapPricesOnFixedPointPath_AtFullScale() throws IOException {
+        Map<String, BigDecimal> prices;
+        try (InputStream in = FixedPointTest.class.getResourceAsStream("/coincap/assets.json")) {
+            prices = CoinCapResponseParser.pricesById(in.readAllBytes());
+        }
+        BigDecimal bitcoin = prices.get("bitcoin");
+        assertEquals(new BigDecimal("22668.3002999900018040"), bitcoin);
+        assertEquals(FixedPoint.UNREPRESENTABLE, FixedPoint.toScaled(bitcoin));
+        assertEquals(new FixedPoint.Price(2_266_830_029_999L, 18_040L), FixedPoint.toPrice(bitcoin));
+        assertEquals(new FixedPoint.Price(-2L, 99_999_999L), FixedPoint.toPrice(new BigDecimal("-0.0000000100000001")));
+        assertEquals(FixedPoint.UNREPRESENTABLE, FixedPoint.toPrice(new BigDecimal("0.00000000000000001")).units());
+
+        List<Asset> assets = new ArrayList<>();
+        FixedPoint.Performances performances = new FixedPoint.Performances(prices.size());
+        int i = 0;
+        for (Map.Entry<String, BigDecimal> price : prices.entrySet()) {
+            Asset asset = new Asset(price.getKey(), new BigDecimal("1.5"), BigDecimal.TEN);
+            assets.add(asset);
+            FixedPoint.Price scaledPrice = FixedPoint.toPrice(price.getValue());
+            assertNotEquals(FixedPoint.UNREPRESENTABLE, scaledPrice.units(), price.getKey());
+            performances.set(i, scaledPrice.units(), scaledPrice.fraction(), FixedPoint.toScaled(asset.getPrice()), null, null);
+            assertNotEquals(FixedPoint.UNREPRESENTABLE, performances.percent(i++), price.getKey());
+        }
+
+        PortfolioStatistics statistics = PortfolioStatistics.calculate(assets, prices);
+
+        BigDecimal total = BigDecimal.ZERO;
+        for (Asset asset : assets) {
+            total = total.add(asset.getQuantity().multiply(prices.get(asset.getSymbol())));
+        }
+        assertEquals(total.setScale(2, RoundingMode.HALF_UP), statistics.getTotalValue());
+    }
+
+    @Test
+    void calculate_ShouldNotRoundPrices_BeforeMultiplyingByQuantity() {
+        Asset asset = new Asset("BTC", new BigDecimal("10000000"), new BigDecimal("0.1"));
+
+        PortfolioStatistics statistics = PortfolioStatistics.calculate(List.of(asset),
+                Map.of("BTC", new BigDecimal("0.1000000006")));
+
+        assertEquals(new BigDecimal("1000000.01"), statistics.getTotalValue());
+        assertEquals(new BigDecimal("0.00"), statistics.getBestPerformance());
+    }
+
+    @Test
+    void divideUnsigned_ShouldMatchBigInteger() {
+        Random random = new Random(3);
+        for (int n = 0; n < 100_000; n++) {
+            long divisor = random.nextInt(4) == 0 ? random.nextLong(1, 1_000_000) : random.nextLong() | 1;
+            long high = Long.remainderUnsigned(random.nextLong(), divisor);
+            long low = random.nextLong();
+            BigInteger dividend = new BigInteger(Long.toUnsignedString(high)).shiftLeft(64)
+                    .add(new BigInteger(Long.toUnsignedString(low)));
+
+            assertEquals(dividend.divide(new BigInteger(Long.toUnsignedString(divisor))),
+                    new BigInteger(Long.toUnsignedString(FixedPoint.divideUnsigned(high, low, divisor))));
+        }
+    }
+
+    @Test
+    void performance_ShouldMatchBigDecimal_ForPricesBeyondScale() {
+        Random random = new Random(11);
+        for (int n = 0; n < 100_000; n++) {
+            BigDecimal latest = randomFinePrice(random);
+            BigDecimal purchase = randomPrice(random).abs();
+            if (purchase.signum() == 0) {
+                continue;
+            }
+            FixedPoint.Price price = FixedPoint.toPrice(latest);
+            long percent = FixedPoint.performance(price.units(), price.fraction(), FixedPoint.toScaled(purchase));
+            BigDecimal expected = PortfolioStatistics.performance(latest, purchase);
+
+            if (percent == FixedPoint.UNREPRESENTABLE) {
+                // only performances beyond the 128-bit division's range fall back to BigDecimal
+                assertTrue(expected.abs().compareTo(new BigDecimal("4E+10")) > 0, latest + " / " + purchase);
+            } else {
+                assertEquals(expected, FixedPoint.percent(percent), latest + " / " + purchase);
+            }
+        }
+    }
+
+    @Test
+    void performance_ShouldMatchBigDecimal_IncludingRoundingAndSign() {
+        Random random = new Random(7);
+        for (int n = 0; n < 100_000; n++) {
+            BigDecimal latest = randomPrice(random);
+            BigDecimal purchase = randomPrice(random);
+            if (purchase.signum() == 0) {
+                continue;
+            }
+            long percent = FixedPoint.performance(FixedPoint.toScaled(latest), FixedPoint.toScaled(purchase));
+
+            assertNotEquals(FixedPoint.UNREPRESENTABLE, percent);
+            assertEquals(PortfolioStatistics.performance(latest, purchase), FixedPoint.percent(percent),
+                    latest + " / " + purchase);
+        }
+        assertEquals(FixedPoint.UNREPRESENTABLE, FixedPoint.performance(1, 0));
+        assertEquals(FixedPoint.UNREPRESENTABLE, FixedPoint.performance(Long.MAX_VALUE, -1));
+    }
+
+    @Test
+    void total_ShouldStayExact_WhenProductsOverflowLongRange() {
+        FixedPoint.Total total = new FixedPoint.Total();
+        BigDecimal expected = BigDecimal.ZERO;
+        for (int n = 0; n < 1000; n++) {
+            total.add(Long.MAX_VALUE, Long.MAX_VALUE);
+            expected = expected.add(new BigDecimal(Long.MAX_VALUE).pow(2).movePointLeft(2 * FixedPoint.SCALE));
+        }
+        total.subtract(Long.MAX_VALUE, Long.MIN_VALUE + 1);
+        expected = expected.add(new BigDecimal(Long.MAX_VALUE).pow(2).movePointLeft(2 * FixedPoint.SCALE));
+        total.add(new BigDecimal("0.000000000000000001"));
+        expected = expected.add(new BigDecimal("0.000000000000000001"));
+
+        assertEquals(0, expected.compareTo(total.toBigDecimal()));
+    }
+
+    @Test
+    void calculate_ShouldMatchBigDecimalReference_ForMixedInputs() {
+        Random random = new Random(42);
+        for (int run = 0; run < 200; run++) {
+            List<Asset> assets = new ArrayList<>();
+            Map<String, BigDecimal> prices = new HashMap<>();
+            for (int i = 0; i < 20; i++) {
+                String symbol = "SYM" + i;
+                assets.add(new Asset(symbol, randomQuantity(random), randomPrice(random).abs().add(BigDecimal.ONE)));
+                prices.put(symbol, switch (random.nextInt(10)) {
+                    case 0 -> new BigDecimal("1E+12");
+                    case 1, 2, 3 -> randomFinePrice(random).abs();
+                    default -> randomPrice(random).abs();
+                });
+            }
+
+            PortfolioStatistics statistics = PortfolioStatistics.calculate(assets, prices);
+
+            BigDecimal total = BigDecimal.ZERO;
+            int best = -1;
+            int worst = -1;
+            BigDecimal[] performances = new BigDecimal[assets.size()];
+            for (int i = 0; i < assets.size(); i++) {
+                Asset asset = assets.get(i);
+                BigDecimal price = prices.get(asset.getSymbol());
+                total = total.add(asset.getQuantity().multiply(price));
+                performances[i] = PortfolioStatistics.performance(price, asset.getPrice());
+                assertEquals(performances[i], statistics.getPerformance(i));
+                if (best < 0 || performances[i].compareTo(performances[best]) > 0) {
+                    best = i;
+                }
+                if (worst < 0 || performances[i].compareTo(performances[worst]) < 0) {
+                    worst = i;
+                }
+            }
+            assertEquals(total.setScale(2, RoundingMode.HALF_UP), statistics.getTotalValue());
+            assertSame(assets.get(best), statistics.getBestAsset());
+            assertSame(assets.get(worst), statistics.getWorstAsset());
+            assertEquals(performances[best], statistics.getBestPerformance());
+            assertEquals(performances[worst], statistics.getWorstPerformance());
+        }
+    }
+
+    private static BigDecimal randomPrice(Random random) {
+        return switch (random.nextInt(4)) {
+            case 0 -> BigDecimal.valueOf(random.nextInt(200) - 100, random.nextInt(3));
+            case 1 -> BigDecimal.valueOf(random.nextLong(-10_000_000_000_000L, 10_000_000_000_000L), 8);
+            case 2 -> BigDecimal.valueOf(random.nextInt(1000), 1);
+            default -> BigDecimal.valueOf(random.nextLong(1, 100_000_000L), random.nextInt(9));
+        };
+    }
+
+    /**
+     * A price with 9 to 16 decimals, as CoinCap quotes them.
+     */
+    private static BigDecimal randomFinePrice(Random random) {
+        return BigDecimal.valueOf(random.nextLong(-1_000_000_000_000_000L, 100_000_000_000_000_000L), 9 + random.nextInt(8));
+    }
+
+    private static BigDecimal randomQuantity(Random random) {
+        return switch (random.nextInt(3)) {
+            case 0 -> BigDecimal.valueOf(random.nextLong(1, 1_000_000_000_000L), 12);
+            case 1 -> new BigDecimal(Long.MAX_VALUE).multiply(BigDecimal.TEN);
+            default -> BigDecimal.valueOf(random.nextInt(1_000_000), 4);
+        };
+    }
+}
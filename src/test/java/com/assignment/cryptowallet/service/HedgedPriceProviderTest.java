@@ -0,0 +1,123 @@
+package com.assignment.cryptowallet.service;
+
+import com.assignment.cryptowallet.support.FakePriceProvider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HedgedPriceProviderTest {
+
+    private FakePriceProvider primary;
+    private FakePriceProvider secondary;
+
+    @BeforeEach
+    void setUp() {
+        primary = new FakePriceProvider("primary")
+                .asset("Bitcoin", "BTC", new BigDecimal("65000"))
+                .asset("Ethereum", "ETH", new BigDecimal("3000"));
+        secondary = new FakePriceProvider("secondary")
+                .asset("Bitcoin", "BTC", new BigDecimal("65001"))
+                .asset("Ethereum", "ETH", new BigDecimal("3001"));
+    }
+
+    @Test
+    void fetchPrice_ShouldNotHedge_WhenPrimaryAnswersInTime() {
+        HedgedPriceProvider provider = hedged(Duration.ofMillis(200));
+
+        assertEquals(new BigDecimal("65000"), provider.fetchPrice("bitcoin").block());
+        assertEquals(0, secondary.requestCount());
+    }
+
+    @Test
+    void fetchPrice_ShouldTakeSecondaryAnswer_WhenPrimaryIsSlow() {
+        primary.latency(Duration.ofSeconds(2));
+        HedgedPriceProvider provider = hedged(Duration.ofMillis(50));
+
+        long start = System.nanoTime();
+        BigDecimal price = provider.fetchPrice("bitcoin").block();
+
+        assertEquals(new BigDecimal("65001"), price);
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(1).toNanos());
+        assertEquals(1, primary.requestCount());
+        assertEquals(1, secondary.requestCount());
+    }
+
+    @Test
+    void fetchPrice_ShouldFailOverImmediately_WhenPrimaryFails() {
+        primary.failWith(new UpstreamUnavailableException("fetchPrice"));
+        HedgedPriceProvider provider = hedged(Duration.ofSeconds(10));
+
+        long start = System.nanoTime();
+        assertEquals(new BigDecimal("3001"), provider.fetchPrice("ethereum").block());
+        assertTrue(System.nanoTime() - start < Duration.ofSeconds(1).toNanos());
+    }
+
+    @Test
+    void searchName_ShouldAcceptEmptyAnswerFromPrimary() {
+        HedgedPriceProvider provider = hedged(Duration.ofMillis(200));
+
+        assertNull(provider.searchName("NOPE").block());
+        assertEquals("Ethereum", provider.searchName("eth").block());
+        assertEquals(0, secondary.requestCount());
+    }
+
+    @Test
+    void fetchSymbolNames_ShouldFailOver_WhenPrimaryFails() {
+        primary.failWith(new UpstreamUnavailableException("fetchSymbolNames"));
+        HedgedPriceProvider provider = hedged(Duration.ofSeconds(10));
+
+        assertEquals(Map.of("BTC", "Bitcoin", "ETH", "Ethereum"), provider.fetchSymbolNames(10).block());
+        assertEquals(1, secondary.requestCount());
+    }
+
+    @Test
+    void fetchPrice_ShouldPropagatePrimaryError_WhenAllProvidersFail() {
+        primary.failWith(new IllegalStateException("primary down"));
+        secondary.failWith(new IllegalStateException("secondary down"));
+        HedgedPriceProvider provider = hedged(Duration.ofMillis(10));
+
+        IllegalStateException error = assertThrows(IllegalStateException.class, () -> provider.fetchPrice("bitcoin").block());
+        assertEquals("primary down", error.getMessage());
+    }
+
+    @Test
+    void fetchPrices_ShouldHedgeEachBatch() {
+        primary.latency(Duration.ofSeconds(2));
+        HedgedPriceProvider provider = hedged(Duration.ofMillis(20));
+
+        Map<String, BigDecimal> prices = provider.fetchPrices(List.of("bitcoin", "ethereum", "dogecoin"), 2).block();
+
+        assertEquals(Map.of("bitcoin", new BigDecimal("65001"), "ethereum", new BigDecimal("3001")), prices);
+        assertEquals(2, primary.requestCount());
+        assertEquals(2, secondary.requestCount());
+    }
+
+    @Test
+    void fetchPrices_ShouldLeaveOutBatches_WhenAllProvidersFail() {
+        HedgedPriceProvider provider = hedged(Duration.ofMillis(10));
+        assertEquals(2, provider.fetchPrices(List.of("bitcoin", "ethereum"), 1).block().size());
+
+        primary.failWith(new UpstreamUnavailableException("fetchBatch"));
+        secondary.failWith(new UpstreamUnavailableException("fetchBatch"));
+
+        assertEquals(Map.of(), provider.fetchPrices(List.of("bitcoin", "ethereum"), 1).block());
+    }
+
+    @Test
+    void requests_ShouldGoStraightToSingleProvider() {
+        HedgedPriceProvider provider = new HedgedPriceProvider(List.of(primary), Duration.ofMillis(1), 4);
+
+        assertEquals(new BigDecimal("65000"), provider.historicalPrice("bitcoin", 1, 2).block());
+        assertEquals(2, provider.fetchPrices(List.of("bitcoin", "ethereum"), 1).block().size());
+    }
+
+    private HedgedPriceProvider hedged(Duration hedgeDelay) {
+        return new HedgedPriceProvider(List.of(primary, secondary), hedgeDelay, 4);
+    }
+}
@@ -0,0 +1,196 @@
+package com.assignment.cryptowallet.service;
+
+import com.assignment.cryptowallet.model.Asset;
+import com.assignment.cryptowallet.model.Currency;
+import com.assignment.cryptowallet.repository.AssetRepository;
+import com.assignment.cryptowallet.repository.CurrencyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class HoldingsIndexTest {
+
+    @Mock
+    private AssetRepository assetRepository;
+
+    @Mock
+    private CurrencyRepository currencyRepository;
+
+    private PriceCache priceCache;
+    private HoldingsIndex holdingsIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(currencyRepository.findBySymbolIn(anyList())).thenReturn(Optional.of(List.of()));
+        priceCache = new PriceCache(currencyRepository);
+        holdingsIndex = new HoldingsIndex(assetRepository, priceCache);
+    }
+
+    @Test
+    void rebuild_ShouldAggregateHoldingsBySymbol() {
+        setPrice("BTC", "35000");
+        setPrice("ETH", "2200");
+        when(assetRepository.streamHoldings()).thenReturn(Stream.of(
+                holding(1L, "BTC", "1", "30000"),
+                holding(1L, "ETH", "2", "2000"),
+                holding(2L, "ETH", "0.5", "2500"),
+                holding(2L, "DOGE", "100", "0.1")));
+
+        holdingsIndex.rebuild();
+
+        assertEquals(4, holdingsIndex.size());
+        assertEquals(Map.of("BTC", new BigDecimal("35000.00"), "ETH", new BigDecimal("5500.00")),
+                holdingsIndex.assetsUnderManagement());
+        assertEquals(Map.of("BTC", new BigDecimal("30000.00"), "ETH", new BigDecimal("5250.00"),
+                "DOGE", new BigDecimal("10.00")), holdingsIndex.costBasis());
+    }
+
+    @Test
+    void topWallets_ShouldRankByValue_KeepingLowerWalletIdOnTies() {
+        setPrice("BTC", "35000");
+        setPrice("ETH", "2000");
+        when(assetRepository.streamHoldings()).thenReturn(Stream.of(
+                holding(1L, "ETH", "1", "2000"),
+                holding(2L, "BTC", "1", "30000"),
+                holding(2L, "DOGE", "1000", "0.1"),
+                holding(3L, "ETH", "0.5", "2000"),
+                holding(3L, "ETH", "0.5", "2000")));
+
+        holdingsIndex.rebuild();
+
+        assertEquals(List.of(new HoldingsIndex.WalletValue(2L, new BigDecimal("35000.00")),
+                new HoldingsIndex.WalletValue(1L, new BigDecimal("2000.00"))), holdingsIndex.topWallets(2));
+        assertEquals(3, holdingsIndex.topWallets(10).size());
+        assertTrue(holdingsIndex.topWallets(0).isEmpty());
+    }
+
+    @Test
+    void onWalletRegistered_ShouldAppendHoldings_IncludingValuesOutsideFixedPointRange() {
+        setPrice("BTC", "0.00000001");
+        when(assetRepository.streamHoldings()).thenReturn(Stream.empty());
+        holdingsIndex.rebuild();
+        BigDecimal huge = new BigDecimal(Long.MAX_VALUE).multiply(BigDecimal.TEN);
+
+        holdingsIndex.onWalletRegistered(new WalletRegisteredEvent(7L, List.of(
+                new Asset("BTC", huge, new BigDecimal("0.000000001")),
+                new Asset("BTC", BigDecimal.ONE, BigDecimal.ONE))));
+
+        BigDecimal expected = huge.add(BigDecimal.ONE).multiply(new BigDecimal("0.00000001"))
+                .setScale(2, RoundingMode.HALF_UP);
+        assertEquals(2, holdingsIndex.size());
+        assertEquals(Map.of("BTC", expected), holdingsIndex.assetsUnderManagement());
+        assertEquals(List.of(new HoldingsIndex.WalletValue(7L, expected)), holdingsIndex.topWallets(1));
+    }
+
+    @Test
+    void rebuild_ShouldKeepWalletsRegisteredConcurrently() throws Exception {
+        setPrice("BTC", "35000.0000000000000001");
+        int streamedWallets = 10_000;
+        int registeredWallets = 1_000;
+        CountDownLatch halfRegistered = new CountDownLatch(1);
+        CountDownLatch streaming = new CountDownLatch(1);
+        when(assetRepository.streamHoldings()).thenReturn(LongStream.rangeClosed(1, streamedWallets)
+                .mapToObj(walletId -> {
+                    if (walletId == 1) {
+                        streaming.countDown();
+                    } else if (walletId == streamedWallets / 2) {
+                        await(halfRegistered);
+                    }
+                    return holding(walletId, "BTC", "1", "30000");
+                }));
+        ExecutorService registrar = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> registrations = registrar.submit(() -> {
+                await(streaming);
+                for (long walletId = streamedWallets + 1; walletId <= streamedWallets + registeredWallets; walletId++) {
+                    holdingsIndex.onWalletRegistered(new WalletRegisteredEvent(walletId,
+                            List.of(new Asset("BTC", BigDecimal.ONE, BigDecimal.ONE))));
+                    if (walletId == streamedWallets + registeredWallets / 2) {
+                        halfRegistered.countDown();
+                    }
+                }
+            });
+
+            holdingsIndex.rebuild();
+            registrations.get();
+        } finally {
+            registrar.shutdownNow();
+        }
+
+        assertEquals(streamedWallets + registeredWallets, holdingsIndex.size());
+        assertEquals(Map.of("BTC", new BigDecimal("385000000.00")), holdingsIndex.assetsUnderManagement());
+    }
+
+    @Test
+    void rebuild_ShouldNotReplayWalletsAlreadyStreamed() {
+        setPrice("ETH", "2000");
+        when(assetRepository.streamHoldings()).thenReturn(Stream.of(
+                holding(1L, "ETH", "1", "2000"),
+                holding(2L, "ETH", "2", "2000"))
+                .peek(holding -> {
+                    if (holding.getWalletId() == 1L) {
+                        holdingsIndex.onWalletRegistered(new WalletRegisteredEvent(2L,
+                                List.of(new Asset("ETH", new BigDecimal("2"), new BigDecimal("2000")))));
+                    }
+                }));
+
+        holdingsIndex.rebuild();
+
+        assertEquals(2, holdingsIndex.size());
+        assertEquals(Map.of("ETH", new BigDecimal("6000.00")), holdingsIndex.assetsUnderManagement());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void setPrice(String symbol, String price) {
+        priceCache.put(new Currency(symbol, symbol, new BigDecimal(price)));
+    }
+
+    private static AssetRepository.Holding holding(Long walletId, String symbol, String quantity, String price) {
+        return new AssetRepository.Holding() {
+            @Override
+            public Long getWalletId() {
+                return walletId;
+            }
+
+            @Override
+            public String getSymbol() {
+                return symbol;
+            }
+
+            @Override
+            public BigDecimal getQuantity() {
+                return new BigDecimal(quantity);
+            }
+
+            @Override
+            public BigDecimal getPrice() {
+                return new BigDecimal(price);
+            }
+        };
+    }
+}
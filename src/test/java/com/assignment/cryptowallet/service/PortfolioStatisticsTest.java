@@ -0,0 +1,56 @@
+package com.assignment.cryptowallet.service;
+
+import com.assignment.cryptowallet.dto.ResponseDto;
+import com.assignment.cryptowallet.model.Asset;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PortfolioStatisticsTest {
+
+    @Test
+    void calculate_ShouldComputeTotalAndPerformersInOnePass() {
+        Asset bitcoin = new Asset("BTC", BigDecimal.ONE, BigDecimal.valueOf(30000.00));
+        Asset ethereum = new Asset("ETH", BigDecimal.valueOf(2), BigDecimal.valueOf(2000.00));
+        Map<String, BigDecimal> prices = Map.of(
+                "BTC", BigDecimal.valueOf(35000.00),
+                "ETH", BigDecimal.valueOf(2200.00));
+
+        PortfolioStatistics statistics = PortfolioStatistics.calculate(List.of(bitcoin, ethereum), prices);
+
+        assertEquals(BigDecimal.valueOf(39400.00).setScale(2), statistics.getTotalValue());
+        assertSame(bitcoin, statistics.getBestAsset());
+        assertSame(ethereum, statistics.getWorstAsset());
+        assertEquals(BigDecimal.valueOf(17.00).setScale(2), statistics.getBestPerformance());
+        assertEquals(BigDecimal.valueOf(10.00).setScale(2), statistics.getWorstPerformance());
+        assertEquals(statistics.getBestPerformance(), statistics.getPerformance(0));
+        assertEquals(statistics.getWorstPerformance(), statistics.getPerformance(1));
+    }
+
+    @Test
+    void calculate_ShouldKeepFirstAsset_WhenPerformanceIsTied() {
+        Asset first = new Asset("AAA", BigDecimal.ONE, BigDecimal.TEN);
+        Asset second = new Asset("BBB", BigDecimal.ONE, BigDecimal.TEN);
+        Map<String, BigDecimal> prices = Map.of("AAA", BigDecimal.TEN, "BBB", BigDecimal.TEN);
+
+        ResponseDto responseDto = PortfolioStatistics.calculate(List.of(first, second), prices)
+                .toResponseDto(LocalDateTime.now());
+
+        assertEquals("AAA", responseDto.bestAsset());
+        assertEquals("AAA", responseDto.worstAsset());
+    }
+
+    @Test
+    void calculate_ShouldThrow_WhenPriceIsMissing() {
+        Asset bitcoin = new Asset("BTC", BigDecimal.ONE, BigDecimal.valueOf(30000.00));
+
+        assertThrows(NoSuchElementException.class, () -> PortfolioStatistics.calculate(List.of(bitcoin), Map.of()));
+        assertThrows(NoSuchElementException.class, () -> PortfolioStatistics.calculate(List.of(), Map.of()));
+    }
+}
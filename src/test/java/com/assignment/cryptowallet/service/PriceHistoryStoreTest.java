@@ -0,0 +1,102 @@
+package com.assignment.cryptowallet.service;
+
+import com.assignment.cryptowallet.model.Currency;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PriceHistoryStoreTest {
+    private static final long HOUR = 3_600_000L;
+    private static final long BASE = 1_729_166_400_000L;
+
+    private PriceCache priceCache;
+    private PriceHistoryStore priceHistoryStore;
+
+    @BeforeEach
+    void setUp() {
+        priceCache = new PriceCache(null);
+        priceHistoryStore = new PriceHistoryStore(priceCache, HOUR, 24 * HOUR);
+    }
+
+    @Test
+    void range_ShouldReturnTicksAcrossPartitions() {
+        for (int minute = 0; minute < 180; minute++) {
+            assertTrue(priceHistoryStore.record("BTC", BASE + minute * 60_000L, BigDecimal.valueOf(60_000 + minute)));
+        }
+
+        PriceSeries series = priceHistoryStore.range("BTC", BASE + 50 * 60_000L, BASE + 130 * 60_000L);
+
+        assertEquals(80, series.size());
+        assertEquals(BASE + 50 * 60_000L, series.timestamp(0));
+        assertEquals(new BigDecimal("60050.00000000"), series.price(0));
+        assertEquals(BASE + 129 * 60_000L, series.timestamp(79));
+        assertEquals(180, priceHistoryStore.size("BTC"));
+    }
+
+    @Test
+    void range_ShouldBeEmpty_ForUnknownSymbolOrEmptyWindow() {
+        priceHistoryStore.record("BTC", BASE, BigDecimal.ONE);
+
+        assertTrue(priceHistoryStore.range("ETH", BASE - HOUR, BASE + HOUR).isEmpty());
+        assertTrue(priceHistoryStore.range("BTC", BASE + 1, BASE + HOUR).isEmpty());
+        assertTrue(priceHistoryStore.range("BTC", BASE, BASE).isEmpty());
+    }
+
+    @Test
+    void record_ShouldKeepEightDecimals() {
+        priceHistoryStore.record("SHIB", BASE, new BigDecimal("0.0000174212345"));
+        priceHistoryStore.record("BTC", BASE, new BigDecimal("67123.123456789"));
+
+        assertEquals(new BigDecimal("0.00001742"), priceHistoryStore.priceAt("SHIB", BASE).orElseThrow());
+        assertEquals(new BigDecimal("67123.12345679"), priceHistoryStore.priceAt("BTC", BASE).orElseThrow());
+    }
+
+    @Test
+    void record_ShouldRejectOutOfOrderAndUnrepresentablePrices() {
+        assertTrue(priceHistoryStore.record("BTC", BASE, BigDecimal.TEN));
+        assertFalse(priceHistoryStore.record("BTC", BASE - 1, BigDecimal.ONE));
+        assertFalse(priceHistoryStore.record("BTC", BASE + 1, new BigDecimal("-1")));
+        assertFalse(priceHistoryStore.record("BTC", BASE + 1, new BigDecimal("1e12")));
+        assertEquals(1, priceHistoryStore.size("BTC"));
+    }
+
+    @Test
+    void priceAt_ShouldReturnLatestTickAtOrBeforeTime() {
+        priceHistoryStore.record("ETH", BASE + 10, BigDecimal.valueOf(3000));
+        priceHistoryStore.record("ETH", BASE + 2 * HOUR + 5, BigDecimal.valueOf(3100));
+
+        assertEquals(Optional.empty(), priceHistoryStore.priceAt("ETH", BASE));
+        assertEquals(new BigDecimal("3000.00000000"), priceHistoryStore.priceAt("ETH", BASE + 10).orElseThrow());
+        assertEquals(new BigDecimal("3000.00000000"), priceHistoryStore.priceAt("ETH", BASE + HOUR + 30).orElseThrow());
+        assertEquals(new BigDecimal("3100.00000000"), priceHistoryStore.priceAt("ETH", BASE + 5 * HOUR).orElseThrow());
+    }
+
+    @Test
+    void record_ShouldDropPartitionsOlderThanRetention() {
+        priceHistoryStore.record("BTC", BASE, BigDecimal.ONE);
+        priceHistoryStore.record("BTC", BASE + 12 * HOUR, BigDecimal.ONE);
+        priceHistoryStore.record("BTC", BASE + 30 * HOUR, BigDecimal.ONE);
+
+        assertEquals(2, priceHistoryStore.size("BTC"));
+        assertTrue(priceHistoryStore.range("BTC", BASE, BASE + HOUR).isEmpty());
+    }
+
+    @Test
+    void onPriceRefreshed_ShouldRecordCachedPrices() {
+        LocalDateTime updateTime = LocalDateTime.of(2024, 10, 17, 12, 0);
+        priceCache.put(new Currency("Bitcoin", "BTC", BigDecimal.valueOf(65_000)));
+
+        priceHistoryStore.onPriceRefreshed(new PriceRefreshedEvent(Set.of("BTC", "ETH"), updateTime));
+
+        long epochMillis = updateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        assertEquals(new BigDecimal("65000.00000000"), priceHistoryStore.priceAt("BTC", epochMillis).orElseThrow());
+        assertEquals(Set.of("BTC"), priceHistoryStore.symbols());
+    }
+}
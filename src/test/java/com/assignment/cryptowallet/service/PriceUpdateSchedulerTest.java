@@ -0,0 +1,185 @@
+package com.assignment.cryptowallet.service;
+
+import com.assignment.cryptowallet.dto.PriceWriteReport;
+import com.assignment.cryptowallet.model.Currency;
+import com.assignment.cryptowallet.repository.CurrencyRepository;
+import com.assignment.cryptowallet.support.CoinCapStubServer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(OutputCaptureExtension.class)
+class PriceUpdateSchedulerTest {
+
+    @Mock
+    private CurrencyRepository currencyRepository;
+
+    @Mock
+    private CurrencyPriceWriter currencyPriceWriter;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private CoinCapStubServer coinCap;
+    private PriceCache priceCache;
+    private RefreshPlanner refreshPlanner;
+    private PriceUpdateScheduler priceUpdateScheduler;
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MockitoAnnotations.openMocks(this);
+        coinCap = CoinCapStubServer.start();
+        priceCache = new PriceCache(currencyRepository);
+        meterRegistry = new SimpleMeterRegistry();
+        when(currencyPriceWriter.writePrices(anyList()))
+                .thenAnswer(invocation -> new PriceWriteReport(invocation.<List<Currency>>getArgument(0).size(), 1));
+
+        CoinCapClient coinCapClient = new CoinCapClient(WebClient.create(coinCap.baseUrl()),
+                new UpstreamGateway(1000, 100, 3, 10, 100, 5, 30_000), 4, 5000, meterRegistry);
+
+        refreshPlanner = new RefreshPlanner(new WalletValuationIndex(null, priceCache),
+                new PriceHistoryStore(priceCache, 3_600_000L, 604_800_000L), priceCache, 6000, 300_000, 3_600_000L, 0.01, 60);
+        priceUpdateScheduler = new PriceUpdateScheduler(currencyRepository, coinCapClient, priceCache,
+                currencyPriceWriter, eventPublisher, refreshPlanner, meterRegistry);
+        ReflectionTestUtils.setField(priceUpdateScheduler, "batchSize", 50);
+        ReflectionTestUtils.setField(priceUpdateScheduler, "updateDuration", 6000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        coinCap.close();
+    }
+
+    @Test
+    void fetchAndUpdatePrices_ShouldFetchPricesInChunks() {
+        List<Currency> currencies = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            currencies.add(new Currency("Coin" + i, "C" + i, BigDecimal.ONE));
+            coinCap.asset("Coin" + i, "C" + i, BigDecimal.valueOf(1000 + i));
+        }
+        when(currencyRepository.findAll()).thenReturn(currencies);
+
+        priceUpdateScheduler.fetchAndUpdatePrices();
+
+        assertEquals(3, coinCap.requestCount());
+        assertTrue(coinCap.requestedUris().stream().allMatch(uri -> uri.startsWith("/assets?ids=")));
+
+        ArgumentCaptor<List<Currency>> saved = ArgumentCaptor.forClass(List.class);
+        verify(currencyPriceWriter, times(1)).writePrices(saved.capture());
+        verify(currencyRepository, never()).save(any(Currency.class));
+        verify(currencyRepository, never()).saveAll(anyList());
+        assertEquals(120, saved.getValue().size());
+
+        for (int i = 0; i < 120; i++) {
+            Currency currency = currencies.get(i);
+            assertEquals(BigDecimal.valueOf(1000 + i), currency.getLatestPrice());
+            assertNotNull(currency.getUpdateTime());
+            assertEquals(BigDecimal.valueOf(1000 + i), priceCache.getPrice("C" + i).orElseThrow());
+        }
+    }
+
+    @Test
+    void fetchAndUpdatePrices_ShouldSkipCurrenciesMissingUpstream() {
+        Currency bitcoin = new Currency("Bitcoin", "BTC", BigDecimal.ONE);
+        Currency unknown = new Currency("Unknown", "UNK", BigDecimal.ONE);
+        coinCap.asset("Bitcoin", "BTC", BigDecimal.valueOf(65000));
+        when(currencyRepository.findAll()).thenReturn(List.of(bitcoin, unknown));
+
+        priceUpdateScheduler.fetchAndUpdatePrices();
+
+        assertEquals(1, coinCap.requestCount());
+        assertEquals(BigDecimal.valueOf(65000), bitcoin.getLatestPrice());
+        assertEquals(BigDecimal.ONE, unknown.getLatestPrice());
+        verify(currencyPriceWriter, times(1)).writePrices(List.of(bitcoin));
+
+        ArgumentCaptor<PriceRefreshedEvent> event = ArgumentCaptor.forClass(PriceRefreshedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertEquals(Set.of("BTC"), event.getValue().symbols());
+        assertEquals(bitcoin.getUpdateTime(), event.getValue().updateTime());
+
+        assertEquals(1, meterRegistry.get("price.refresh.duration").timer().count());
+        double bitcoinLag = meterRegistry.get("price.refresh.lag").tag("symbol", "BTC").gauge().value();
+        assertTrue(bitcoinLag >= 0 && bitcoinLag < 60, "lag " + bitcoinLag);
+        assertTrue(Double.isNaN(meterRegistry.get("price.refresh.lag").tag("symbol", "UNK").gauge().value()));
+    }
+
+    @Test
+    void fetchAndUpdatePrices_ShouldRegisterLagGaugeOncePerSymbol() {
+        coinCap.asset("Bitcoin", "BTC", BigDecimal.valueOf(65000));
+        for (int cycle = 0; cycle < 3; cycle++) {
+            when(currencyRepository.findAll()).thenReturn(List.of(new Currency("Bitcoin", "BTC", BigDecimal.ONE)));
+            priceUpdateScheduler.fetchAndUpdatePrices();
+        }
+        System.gc();
+
+        assertEquals(1, meterRegistry.find("price.refresh.lag").gauges().size());
+        double bitcoinLag = meterRegistry.get("price.refresh.lag").tag("symbol", "BTC").gauge().value();
+        assertTrue(bitcoinLag >= 0 && bitcoinLag < 60, "lag " + bitcoinLag);
+    }
+
+    @Test
+    void fetchAndUpdatePrices_ShouldSkipCurrenciesNotDue() {
+        Currency bitcoin = new Currency("Bitcoin", "BTC", BigDecimal.ONE);
+        coinCap.asset("Bitcoin", "BTC", BigDecimal.valueOf(65000));
+        when(currencyRepository.findAll()).thenReturn(List.of(bitcoin));
+
+        priceUpdateScheduler.fetchAndUpdatePrices();
+        priceUpdateScheduler.fetchAndUpdatePrices();
+
+        assertEquals(1, coinCap.requestCount());
+        verify(currencyPriceWriter, times(1)).writePrices(anyList());
+    }
+
+    @Test
+    void fetchAndUpdatePrices_ShouldUpdateNothing_WhenUpstreamAnswersEmpty(CapturedOutput output) {
+        PriceProvider priceProvider = mock(PriceProvider.class);
+        when(priceProvider.fetchPrices(anyList(), anyInt())).thenReturn(Mono.empty());
+        priceUpdateScheduler = new PriceUpdateScheduler(currencyRepository, priceProvider, priceCache,
+                currencyPriceWriter, eventPublisher, refreshPlanner, meterRegistry);
+        ReflectionTestUtils.setField(priceUpdateScheduler, "batchSize", 50);
+        ReflectionTestUtils.setField(priceUpdateScheduler, "updateDuration", 6000L);
+        Currency bitcoin = new Currency("Bitcoin", "BTC", BigDecimal.ONE);
+        when(currencyRepository.findAll()).thenReturn(List.of(bitcoin));
+
+        priceUpdateScheduler.fetchAndUpdatePrices();
+
+        verify(priceProvider, times(1)).fetchPrices(List.of("bitcoin"), 50);
+        assertEquals(BigDecimal.ONE, bitcoin.getLatestPrice());
+        verify(currencyPriceWriter, never()).writePrices(anyList());
+        verify(eventPublisher, never()).publishEvent(any(PriceRefreshedEvent.class));
+        assertFalse(output.getAll().contains("Failed to update price"), output.getAll());
+        assertTrue(output.getAll().contains("Updated 0 of 1 due"), output.getAll());
+    }
+
+    @Test
+    void fetchAndUpdatePrices_ShouldDoNothing_WhenNoCurrencies() {
+        when(currencyRepository.findAll()).thenReturn(List.of());
+
+        priceUpdateScheduler.fetchAndUpdatePrices();
+
+        assertEquals(0, coinCap.requestCount());
+        verify(currencyPriceWriter, never()).writePrices(anyList());
+        verify(eventPublisher, never()).publishEvent(any(PriceRefreshedEvent.class));
+    }
+}
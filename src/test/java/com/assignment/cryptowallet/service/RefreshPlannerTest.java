@@ -0,0 +1,102 @@
+package com.assignment.cryptowallet.service;
+
+import com.assignment.cryptowallet.model.Asset;
+import com.assignment.cryptowallet.model.Currency;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RefreshPlannerTest {
+    private static final long NOW = 1_729_166_400_000L;
+    private static final long CYCLE = 6000;
+
+    private PriceCache priceCache;
+    private PriceHistoryStore priceHistoryStore;
+    private WalletValuationIndex walletValuationIndex;
+
+    @BeforeEach
+    void setUp() {
+        priceCache = new PriceCache(null);
+        priceHistoryStore = new PriceHistoryStore(priceCache, 3_600_000L, 604_800_000L);
+        walletValuationIndex = new WalletValuationIndex(null, priceCache);
+        priceCache.put(new Currency("Bitcoin", "BTC", new BigDecimal("60000")));
+        priceCache.put(new Currency("Dogecoin", "DOGE", new BigDecimal("0.1")));
+        priceCache.put(new Currency("Ethereum", "ETH", new BigDecimal("2500")));
+    }
+
+    @Test
+    void interval_ShouldShrinkWithHeldValueAndVolatility() {
+        hold(1L, "BTC", "100");
+        hold(2L, "ETH", "1");
+
+        RefreshPlanner planner = planner(60);
+
+        assertEquals(300_000, planner.interval("DOGE", NOW));
+        long bitcoin = planner.interval("BTC", NOW);
+        long ethereum = planner.interval("ETH", NOW);
+        assertTrue(bitcoin < ethereum, bitcoin + " < " + ethereum);
+
+        priceHistoryStore.record("ETH", NOW - 600_000, new BigDecimal("2400"));
+        priceHistoryStore.record("ETH", NOW - 60_000, new BigDecimal("2600"));
+        assertEquals(0.2 / 2.6, planner.volatility("ETH", NOW), 1e-9);
+        assertTrue(planner.interval("ETH", NOW) < ethereum);
+        assertTrue(planner.interval("BTC", NOW) >= 6000);
+    }
+
+    @Test
+    void plan_ShouldSelectOnlyDueCurrencies() {
+        hold(1L, "BTC", "100");
+        Currency bitcoin = currency("Bitcoin", "BTC", NOW - 60_000);
+        Currency dogecoin = currency("Dogecoin", "DOGE", NOW - 60_000);
+        Currency ethereum = currency("Ethereum", "ETH", null);
+
+        RefreshPlanner planner = planner(60);
+        List<Currency> due = planner.plan(List.of(bitcoin, dogecoin, ethereum), NOW, CYCLE, 50);
+
+        assertEquals(List.of("ETH", "BTC"), due.stream().map(Currency::getSymbol).toList());
+
+        planner.markAttempted(List.of("ETH", "BTC"), NOW);
+        assertTrue(planner.plan(List.of(bitcoin, dogecoin, ethereum), NOW + CYCLE, CYCLE, 50).isEmpty());
+        assertEquals(List.of("DOGE"), planner.plan(List.of(dogecoin), NOW + 300_000, CYCLE, 50)
+                .stream().map(Currency::getSymbol).toList());
+    }
+
+    @Test
+    void plan_ShouldStayWithinRequestBudget_MostOverdueFirst() {
+        List<Currency> currencies = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            currencies.add(currency("Coin" + i, "C" + i, NOW - 300_000 - i * 1000L));
+        }
+
+        List<Currency> due = planner(20).plan(currencies, NOW, CYCLE, 5);
+
+        assertEquals(10, due.size());
+        assertEquals("C99", due.get(0).getSymbol());
+        assertEquals("C90", due.get(9).getSymbol());
+        assertEquals(100, planner(0).plan(currencies, NOW, CYCLE, 5).size());
+    }
+
+    private RefreshPlanner planner(int requestBudget) {
+        return new RefreshPlanner(walletValuationIndex, priceHistoryStore, priceCache,
+                6000, 300_000, 3_600_000L, 0.01, requestBudget);
+    }
+
+    private void hold(Long walletId, String symbol, String quantity) {
+        walletValuationIndex.onWalletRegistered(new WalletRegisteredEvent(walletId,
+                List.of(new Asset(symbol, new BigDecimal(quantity), BigDecimal.ONE))));
+    }
+
+    private static Currency currency(String name, String symbol, Long updateMillis) {
+        LocalDateTime updateTime = updateMillis == null ? null
+                : LocalDateTime.ofInstant(Instant.ofEpochMilli(updateMillis), ZoneId.systemDefault());
+        return new Currency(name, symbol, BigDecimal.ONE, updateTime);
+    }
+}
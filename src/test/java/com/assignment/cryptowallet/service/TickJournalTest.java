@@ -0,0 +1,190 @@
+package com.assignment.cryptowallet.service;
+
+import com.assignment.cryptowallet.model.Currency;
+import com.assignment.cryptowallet.repository.CurrencyRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class TickJournalTest {
+    private static final LocalDateTime START = LocalDateTime.of(2024, 10, 17, 12, 0);
+
+    @Mock
+    private CurrencyRepository currencyRepository;
+
+    private Path directory;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        MockitoAnnotations.openMocks(this);
+        directory = Files.createTempDirectory("price-journal");
+        when(currencyRepository.findBySymbolIn(anyList())).thenReturn(Optional.of(List.of(
+                new Currency("Bitcoin", "BTC", BigDecimal.valueOf(60_000)),
+                new Currency("Ethereum", "ETH", BigDecimal.valueOf(2_500)))));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Test
+    void open_ShouldReplayJournaledTicksAfterRestart() throws IOException {
+        PriceCache priceCache = new PriceCache(null);
+        TickJournal journal = journal(priceCache, new PriceHistoryStore(priceCache, 3_600_000L, 604_800_000L), 1 << 16);
+        journal.open();
+        for (int minute = 0; minute < 10; minute++) {
+            priceCache.put(new Currency("Bitcoin", "BTC", BigDecimal.valueOf(60_000 + minute)));
+            priceCache.put(new Currency("Ethereum", "ETH", new BigDecimal("2500.123456789")));
+            journal.onPriceRefreshed(new PriceRefreshedEvent(Set.of("BTC", "ETH"), START.plusMinutes(minute)));
+        }
+        journal.close();
+
+        when(currencyRepository.findBySymbolIn(anyList())).thenReturn(Optional.empty());
+        PriceCache restoredCache = new PriceCache(null);
+        PriceHistoryStore restoredHistory = new PriceHistoryStore(restoredCache, 3_600_000L, 604_800_000L);
+        TickJournal restored = journal(restoredCache, restoredHistory, 1 << 16);
+        restored.open();
+
+        assertEquals(new BigDecimal("60009.00000000"), restoredCache.getPrice("BTC").orElseThrow());
+        assertEquals(new BigDecimal("2500.123456789"), restoredCache.getPrice("ETH").orElseThrow());
+        assertEquals(10, restoredHistory.size("BTC"));
+        assertEquals(10, restoredHistory.size("ETH"));
+
+        ArgumentCaptor<List<Currency>> saved = ArgumentCaptor.forClass(List.class);
+        verify(currencyRepository).saveAll(saved.capture());
+        assertEquals(Set.of("Bitcoin", "Ethereum"),
+                Set.copyOf(saved.getValue().stream().map(Currency::getName).toList()));
+        assertEquals(START.plusMinutes(9), saved.getValue().stream()
+                .filter(currency -> currency.getSymbol().equals("BTC")).findFirst().orElseThrow().getUpdateTime());
+        restored.close();
+    }
+
+    @Test
+    void open_ShouldRestoreFullPrecisionPrices_BeyondHistoryScale() throws IOException {
+        PriceCache priceCache = new PriceCache(null);
+        TickJournal journal = journal(priceCache, new PriceHistoryStore(priceCache, 3_600_000L, 604_800_000L), 256);
+        journal.open();
+        for (int minute = 0; minute < 20; minute++) {
+            priceCache.put(new Currency("Bitcoin", "BTC", new BigDecimal("22668.3002999900018040").add(BigDecimal.valueOf(minute))));
+            journal.onPriceRefreshed(new PriceRefreshedEvent(Set.of("BTC"), START.plusMinutes(minute)));
+        }
+        journal.close();
+
+        when(currencyRepository.findBySymbolIn(anyList())).thenReturn(Optional.empty());
+        PriceCache restoredCache = new PriceCache(null);
+        PriceHistoryStore restoredHistory = new PriceHistoryStore(restoredCache, 3_600_000L, 604_800_000L);
+        TickJournal restored = journal(restoredCache, restoredHistory, 256);
+        restored.open();
+
+        assertEquals(new BigDecimal("22687.3002999900018040"), restoredCache.getPrice("BTC").orElseThrow());
+        assertEquals(20, restoredHistory.size("BTC"));
+        long lastTick = START.plusMinutes(19).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        assertEquals(new BigDecimal("22687.30029999"), restoredHistory.priceAt("BTC", lastTick).orElseThrow());
+        restored.close();
+    }
+
+    @Test
+    void onPriceRefreshed_ShouldRollOverToNewSegments() throws IOException {
+        PriceCache priceCache = new PriceCache(null);
+        TickJournal journal = journal(priceCache, new PriceHistoryStore(priceCache, 3_600_000L, 604_800_000L), 256);
+        journal.open();
+        for (int minute = 0; minute < 40; minute++) {
+            priceCache.put(new Currency("Bitcoin", "BTC", BigDecimal.valueOf(60_000 + minute)));
+            journal.onPriceRefreshed(new PriceRefreshedEvent(Set.of("BTC"), START.plusMinutes(minute)));
+        }
+        journal.close();
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertTrue(files.count() > 1);
+        }
+        PriceCache restoredCache = new PriceCache(null);
+        PriceHistoryStore restoredHistory = new PriceHistoryStore(restoredCache, 3_600_000L, 604_800_000L);
+        TickJournal restored = journal(restoredCache, restoredHistory, 256);
+        restored.open();
+
+        assertEquals(40, restoredHistory.size("BTC"));
+        assertEquals(new BigDecimal("60039.00000000"), restoredCache.getPrice("BTC").orElseThrow());
+        restored.close();
+    }
+
+    @Test
+    void open_ShouldStopAtTornRecord() throws IOException {
+        PriceCache priceCache = new PriceCache(null);
+        TickJournal journal = journal(priceCache, new PriceHistoryStore(priceCache, 3_600_000L, 604_800_000L), 1 << 16);
+        journal.open();
+        for (int minute = 0; minute < 3; minute++) {
+            priceCache.put(new Currency("Bitcoin", "BTC", BigDecimal.valueOf(60_000 + minute)));
+            journal.onPriceRefreshed(new PriceRefreshedEvent(Set.of("BTC"), START.plusMinutes(minute)));
+        }
+        journal.close();
+
+        Path segment = directory.resolve("ticks-000000.journal");
+        int lastTick = tickOffset(segment, 2);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0}), lastTick);
+        }
+
+        PriceCache restoredCache = new PriceCache(null);
+        PriceHistoryStore restoredHistory = new PriceHistoryStore(restoredCache, 3_600_000L, 604_800_000L);
+        TickJournal restored = journal(restoredCache, restoredHistory, 1 << 16);
+        restored.open();
+
+        assertEquals(2, restoredHistory.size("BTC"));
+        assertEquals(new BigDecimal("60001.00000000"), restoredCache.getPrice("BTC").orElseThrow());
+
+        restoredCache.put(new Currency("Bitcoin", "BTC", BigDecimal.valueOf(61_000)));
+        restored.onPriceRefreshed(new PriceRefreshedEvent(Set.of("BTC"), START.plusMinutes(5)));
+        restored.close();
+        assertEquals(TickJournal.TICK_RECORD, Files.readAllBytes(segment)[lastTick]);
+    }
+
+    private TickJournal journal(PriceCache priceCache, PriceHistoryStore priceHistoryStore, int segmentSize) {
+        return new TickJournal(currencyRepository, priceCache, priceHistoryStore, true, directory, segmentSize);
+    }
+
+    private static int tickOffset(Path segment, int tick) throws IOException {
+        byte[] bytes = Files.readAllBytes(segment);
+        int position = TickJournal.HEADER_SIZE;
+        int ticks = 0;
+        while (bytes[position] != 0) {
+            if (bytes[position] == TickJournal.TICK_RECORD) {
+                if (ticks++ == tick) {
+                    return position;
+                }
+                position += TickJournal.TICK_SIZE;
+            } else {
+                ByteBuffer record = ByteBuffer.wrap(bytes);
+                int symbolLength = record.getShort(position + 5);
+                int nameLength = record.getShort(position + 7 + symbolLength);
+                position += 1 + 4 + 2 + symbolLength + 2 + nameLength;
+            }
+        }
+        throw new IllegalStateException("Tick " + tick + " not found");
+    }
+}
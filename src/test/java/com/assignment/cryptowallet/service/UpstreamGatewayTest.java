@@ -0,0 +1,103 @@
+package com.assignment.cryptowallet.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UpstreamGatewayTest {
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void tokenBucket_ShouldAllowBurstThenPaceAtRate() {
+        UpstreamGateway.TokenBucket tokenBucket = new UpstreamGateway.TokenBucket(10, 3);
+
+        assertEquals(0, tokenBucket.reserve(0));
+        assertEquals(0, tokenBucket.reserve(0));
+        assertEquals(0, tokenBucket.reserve(0));
+        assertEquals(SECOND / 10, tokenBucket.reserve(0));
+        assertEquals(2 * SECOND / 10, tokenBucket.reserve(0));
+        assertEquals(0, tokenBucket.reserve(10 * SECOND));
+
+        tokenBucket.pause(10 * SECOND, 2 * SECOND);
+        assertEquals(2 * SECOND, tokenBucket.reserve(10 * SECOND));
+    }
+
+    @Test
+    void call_ShouldRetryRateLimitedAndServerErrors() {
+        UpstreamGateway gateway = new UpstreamGateway(1000, 100, 3, 1, 10, 5, 30_000);
+        AtomicInteger attempts = new AtomicInteger();
+
+        String result = gateway.call("test", () -> switch (attempts.incrementAndGet()) {
+            case 1 -> Mono.error(error(429));
+            case 2 -> Mono.error(error(502));
+            default -> Mono.just("ok");
+        }).block();
+
+        assertEquals("ok", result);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void call_ShouldNotRetryClientErrors() {
+        UpstreamGateway gateway = new UpstreamGateway(1000, 100, 3, 1, 10, 1, 30_000);
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(WebClientResponseException.NotFound.class, () -> gateway.call("test", () -> {
+            attempts.incrementAndGet();
+            return Mono.error(error(404));
+        }).block());
+
+        assertEquals(1, attempts.get());
+        assertFalse(gateway.isOpen());
+    }
+
+    @Test
+    void call_ShouldFailFastWhileOpenAndCloseAfterSuccessfulProbe() throws InterruptedException {
+        UpstreamGateway gateway = new UpstreamGateway(1000, 100, 1, 1, 10, 2, 100);
+        AtomicInteger attempts = new AtomicInteger();
+
+        for (int i = 0; i < 2; i++) {
+            assertThrows(WebClientResponseException.class, () -> gateway.call("test", () -> {
+                attempts.incrementAndGet();
+                return Mono.error(error(503));
+            }).block());
+        }
+        assertTrue(gateway.isOpen());
+        assertThrows(UpstreamUnavailableException.class, () -> gateway.call("test", () -> {
+            attempts.incrementAndGet();
+            return Mono.just("ok");
+        }).block());
+        assertEquals(4, attempts.get());
+
+        Thread.sleep(150);
+        assertEquals("ok", gateway.call("test", () -> Mono.just("ok")).block());
+        assertFalse(gateway.isOpen());
+    }
+
+    @Test
+    void call_ShouldKeepProbing_WhenOtherCallIsCancelled() throws InterruptedException {
+        UpstreamGateway gateway = new UpstreamGateway(1000, 100, 0, 1, 10, 1, 100);
+        Disposable admittedBeforeOpen = gateway.call("slow", () -> Mono.never()).subscribe();
+        assertThrows(WebClientResponseException.class, () -> gateway.call("test", () -> Mono.error(error(503))).block());
+        assertTrue(gateway.isOpen());
+
+        Thread.sleep(150);
+        Disposable probe = gateway.call("probe", () -> Mono.never()).subscribe();
+        admittedBeforeOpen.dispose();
+        assertThrows(UpstreamUnavailableException.class, () -> gateway.call("test", () -> Mono.just("ok")).block());
+
+        probe.dispose();
+        assertEquals("ok", gateway.call("test", () -> Mono.just("ok")).block());
+        assertFalse(gateway.isOpen());
+    }
+
+    private static WebClientResponseException error(int status) {
+        return WebClientResponseException.create(status, "status " + status, new HttpHeaders(), new byte[0], null);
+    }
+}
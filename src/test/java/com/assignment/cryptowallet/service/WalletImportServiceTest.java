@@ -0,0 +1,121 @@
+package com.assignment.cryptowallet.service;
+
+import com.assignment.cryptowallet.dto.WalletDto;
+import com.assignment.cryptowallet.dto.WalletImportReport;
+import com.assignment.cryptowallet.mapper.WalletMapper;
+import com.assignment.cryptowallet.model.Asset;
+import com.assignment.cryptowallet.model.Wallet;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class WalletImportServiceTest {
+
+    @Mock
+    private WalletMapper walletMapper;
+
+    @Mock
+    private CryptoService cryptoService;
+
+    @Mock
+    private WalletBatchWriter walletBatchWriter;
+
+    private WalletImportService walletImportService;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        walletImportService = new WalletImportService(new ObjectMapper(), walletMapper, cryptoService, walletBatchWriter);
+        ReflectionTestUtils.setField(walletImportService, "batchSize", 2);
+        when(walletMapper.toEntity(any(WalletDto.class))).thenAnswer(invocation -> {
+            WalletDto walletDto = invocation.getArgument(0);
+            Wallet wallet = new Wallet();
+            wallet.setAssets(new ArrayList<>(walletDto.assets().stream()
+                    .map(asset -> new Asset(asset.symbol(), asset.quantity(), asset.price()))
+                    .toList()));
+            return wallet;
+        });
+        when(cryptoService.registerCurrencies(anySet())).thenAnswer(invocation -> {
+            Set<String> priced = new HashSet<>(invocation.<Set<String>>getArgument(0));
+            priced.remove("JUNK");
+            return priced;
+        });
+    }
+
+    @Test
+    void importWallets_ShouldReadNdjsonInChunks() throws IOException {
+        String body = """
+                {"assets":[{"symbol":"BTC","quantity":1,"price":30000}]}
+                {"assets":[{"symbol":"ETH","quantity":2,"price":2000},{"symbol":"BTC","quantity":1,"price":31000}]}
+                {"assets":[{"symbol":"JUNK","quantity":5,"price":1}]}
+                """;
+
+        WalletImportReport report = walletImportService.importWallets(stream(body));
+
+        assertEquals(3, report.walletsImported());
+        assertEquals(4, report.assetsImported());
+        assertEquals(0, report.walletsRejected());
+        assertEquals(List.of("JUNK"), report.unresolvedSymbols());
+
+        ArgumentCaptor<List<Wallet>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(walletBatchWriter, times(2)).writeWallets(chunks.capture());
+        assertEquals(2, chunks.getAllValues().get(0).size());
+        assertEquals(1, chunks.getAllValues().get(1).size());
+        Wallet first = chunks.getAllValues().get(0).get(0);
+        assertSame(first, first.getAssets().get(0).getWallet());
+    }
+
+    @Test
+    void importWallets_ShouldResolveEachSymbolOnce() throws IOException {
+        String body = """
+                [
+                  {"assets":[{"symbol":"BTC","quantity":1,"price":30000}]},
+                  {"assets":[{"symbol":"BTC","quantity":2,"price":30000}]},
+                  {"assets":[{"symbol":"BTC","quantity":3,"price":30000},{"symbol":"ETH","quantity":1,"price":2000}]},
+                  {"assets":[{"symbol":"ETH","quantity":4,"price":2000}]}
+                ]
+                """;
+
+        WalletImportReport report = walletImportService.importWallets(stream(body));
+
+        assertEquals(4, report.walletsImported());
+        verify(cryptoService, times(1)).registerCurrencies(Set.of("BTC"));
+        verify(cryptoService, times(1)).registerCurrencies(Set.of("ETH"));
+        verifyNoMoreInteractions(cryptoService);
+    }
+
+    @Test
+    void importWallets_ShouldRejectInvalidWallets() throws IOException {
+        String body = """
+                {"assets":[]}
+                {"assets":[{"symbol":"BTC","quantity":1,"price":0}]}
+                {"assets":[{"symbol":null,"quantity":1,"price":1}]}
+                {"assets":[{"symbol":"BTC","quantity":1,"price":30000}]}
+                """;
+
+        WalletImportReport report = walletImportService.importWallets(stream(body));
+
+        assertEquals(1, report.walletsImported());
+        assertEquals(3, report.walletsRejected());
+        verify(walletBatchWriter, times(1)).writeWallets(anyList());
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,247 @@
+package com.assignment.cryptowallet.service;
+
+import com.assignment.cryptowallet.dto.ResponseDto;
+import com.assignment.cryptowallet.model.Asset;
+import com.assignment.cryptowallet.model.Currency;
+import com.assignment.cryptowallet.repository.AssetRepository;
+import com.assignment.cryptowallet.repository.CurrencyRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class WalletValuationIndexTest {
+
+    @Mock
+    private AssetRepository assetRepository;
+
+    @Mock
+    private CurrencyRepository currencyRepository;
+
+    private PriceCache priceCache;
+    private WalletValuationIndex walletValuationIndex;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(currencyRepository.findBySymbolIn(anyList())).thenReturn(Optional.of(List.of()));
+        priceCache = new PriceCache(currencyRepository);
+        walletValuationIndex = new WalletValuationIndex(assetRepository, priceCache);
+    }
+
+    @Test
+    void rebuild_ShouldIndexWalletsFromAssetTable() {
+        setPrice("BTC", "35000");
+        setPrice("ETH", "2200");
+        when(assetRepository.streamHoldings()).thenReturn(Stream.of(
+                holding(1L, "BTC", "1", "30000"),
+                holding(1L, "ETH", "2", "2000"),
+                holding(2L, "ETH", "1", "2500")));
+
+        walletValuationIndex.rebuild();
+
+        assertEquals(2, walletValuationIndex.size());
+        ResponseDto first = walletValuationIndex.valuation(1L).orElseThrow();
+        assertEquals(new BigDecimal("39400.00"), first.totalValue());
+        assertEquals("BTC", first.bestAsset());
+        assertEquals("ETH", first.worstAsset());
+        assertEquals(new BigDecimal("-12.00"), walletValuationIndex.valuation(2L).orElseThrow().bestPerformance());
+        assertEquals(new BigDecimal("3"), walletValuationIndex.heldQuantity("ETH"));
+        assertEquals(BigDecimal.ZERO, walletValuationIndex.heldQuantity("DOGE"));
+    }
+
+    @Test
+    void rebuild_ShouldKeepWalletsRegisteredWhileStreaming() {
+        setPrice("BTC", "35000");
+        setPrice("ETH", "2000");
+        register(1L, asset("BTC", "1", "30000"));
+        when(assetRepository.streamHoldings()).thenReturn(Stream.of(
+                holding(1L, "BTC", "1", "30000"),
+                holding(2L, "ETH", "1", "2000"))
+                .peek(holding -> {
+                    if (holding.getWalletId() == 2L) {
+                        register(3L, asset("ETH", "2", "2000"));
+                    }
+                }));
+
+        walletValuationIndex.rebuild();
+        register(4L, asset("BTC", "2", "30000"));
+
+        assertEquals(4, walletValuationIndex.size());
+        assertEquals(new BigDecimal("4000.00"), walletValuationIndex.valuation(3L).orElseThrow().totalValue());
+        assertEquals(new BigDecimal("3"), walletValuationIndex.heldQuantity("ETH"));
+        assertEquals(new BigDecimal("3"), walletValuationIndex.heldQuantity("BTC"));
+    }
+
+    @Test
+    void onPriceRefreshed_ShouldOnlyTouchWalletsHoldingChangedSymbols() {
+        setPrice("BTC", "35000");
+        setPrice("ETH", "2200");
+        register(1L, asset("BTC", "1", "30000"), asset("ETH", "2", "2000"));
+        register(2L, asset("ETH", "1", "2000"));
+        ResponseDto before = walletValuationIndex.valuation(2L).orElseThrow();
+
+        LocalDateTime updateTime = LocalDateTime.of(2024, 10, 17, 12, 0);
+        setPrice("BTC", "40000");
+        walletValuationIndex.onPriceRefreshed(new PriceRefreshedEvent(Set.of("BTC"), updateTime));
+
+        ResponseDto first = walletValuationIndex.valuation(1L).orElseThrow();
+        assertEquals(new BigDecimal("44400.00"), first.totalValue());
+        assertEquals(updateTime, first.lastUpdated());
+        assertEquals(before, walletValuationIndex.valuation(2L).orElseThrow());
+    }
+
+    @Test
+    void onPriceRefreshed_ShouldRescanOnlyWhenBestOrWorstWeakens() {
+        setPrice("AAA", "20");
+        setPrice("BBB", "15");
+        setPrice("CCC", "11");
+        register(1L, asset("AAA", "1", "10"), asset("BBB", "1", "10"), asset("CCC", "1", "10"));
+
+        refresh("BBB", "16");
+        refresh("AAA", "25");
+        refresh("CCC", "10");
+        assertEquals(0, walletValuationIndex.rescans(1L));
+
+        refresh("AAA", "12");
+        ResponseDto valuation = walletValuationIndex.valuation(1L).orElseThrow();
+        assertEquals(1, walletValuationIndex.rescans(1L));
+        assertEquals("BBB", valuation.bestAsset());
+        assertEquals("CCC", valuation.worstAsset());
+    }
+
+    @Test
+    void onPriceRefreshed_ShouldIncludeAssetsOnceTheirPriceArrives() {
+        setPrice("BTC", "35000");
+        register(1L, asset("BTC", "1", "30000"), asset("NEW", "10", "1"));
+        assertEquals(List.of("NEW"), walletValuationIndex.valuation(1L).orElseThrow().unresolvedSymbols());
+
+        refresh("NEW", "5");
+
+        ResponseDto valuation = walletValuationIndex.valuation(1L).orElseThrow();
+        assertEquals(new BigDecimal("35050.00"), valuation.totalValue());
+        assertEquals("NEW", valuation.bestAsset());
+        assertEquals(List.of(), valuation.unresolvedSymbols());
+    }
+
+    @Test
+    void onWalletRegistered_ShouldNotOverwriteRefreshRacingItsCatchUp() throws InterruptedException {
+        LocalDateTime updateTime = LocalDateTime.now().plusMinutes(1);
+        AtomicBoolean raced = new AtomicBoolean();
+        Thread[] refresher = new Thread[1];
+        priceCache = new PriceCache(currencyRepository) {
+            @Override
+            public Optional<BigDecimal> getPrice(String symbol) {
+                Optional<BigDecimal> price = super.getPrice(symbol);
+                if (raced.compareAndSet(false, true)) {
+                    // a refresh lands between the catch-up reading the price and applying it
+                    refresher[0] = new Thread(() -> {
+                        setPrice("BTC", "40000");
+                        walletValuationIndex.onPriceRefreshed(new PriceRefreshedEvent(Set.of("BTC"), updateTime));
+                    });
+                    refresher[0].start();
+                    try {
+                        refresher[0].join(200);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return price;
+            }
+        };
+        walletValuationIndex = new WalletValuationIndex(assetRepository, priceCache);
+        setPrice("BTC", "35000");
+
+        register(1L, asset("BTC", "1", "30000"));
+        refresher[0].join();
+
+        ResponseDto valuation = walletValuationIndex.valuation(1L).orElseThrow();
+        assertEquals(new BigDecimal("40000.00"), valuation.totalValue());
+        assertEquals(updateTime, valuation.lastUpdated());
+    }
+
+    @Test
+    void onPriceRefreshed_ShouldMatchFullRecalculation() {
+        Random random = new Random(42);
+        String[] symbols = {"S0", "S1", "S2", "S3", "S4", "S5"};
+        for (String symbol : symbols) {
+            setPrice(symbol, String.valueOf(1 + random.nextInt(20)));
+        }
+        Map<Long, List<Asset>> wallets = new HashMap<>();
+        for (long walletId = 1; walletId <= 20; walletId++) {
+            List<Asset> assets = new ArrayList<>();
+            for (int i = 0; i < 1 + random.nextInt(6); i++) {
+                assets.add(asset(symbols[random.nextInt(symbols.length)],
+                        String.valueOf(1 + random.nextInt(100)), String.valueOf(1 + random.nextInt(20))));
+            }
+            wallets.put(walletId, assets);
+            register(walletId, assets.toArray(new Asset[0]));
+        }
+
+        for (int tick = 0; tick < 500; tick++) {
+            String symbol = symbols[random.nextInt(symbols.length)];
+            refresh(symbol, String.valueOf(1 + random.nextInt(20)));
+
+            Map<String, BigDecimal> prices = priceCache.getPrices(List.of(symbols));
+            wallets.forEach((walletId, assets) -> {
+                PortfolioStatistics expected = PortfolioStatistics.calculate(assets, prices);
+                ResponseDto actual = walletValuationIndex.valuation(walletId).orElseThrow();
+                assertEquals(expected.getTotalValue(), actual.totalValue());
+                assertEquals(expected.getBestAsset().getSymbol(), actual.bestAsset());
+                assertEquals(expected.getBestPerformance(), actual.bestPerformance());
+                assertEquals(expected.getWorstAsset().getSymbol(), actual.worstAsset());
+                assertEquals(expected.getWorstPerformance(), actual.worstPerformance());
+            });
+        }
+    }
+
+    private void register(Long walletId, Asset... assets) {
+        walletValuationIndex.onWalletRegistered(new WalletRegisteredEvent(walletId, List.of(assets)));
+    }
+
+    private void refresh(String symbol, String price) {
+        setPrice(symbol, price);
+        walletValuationIndex.onPriceRefreshed(new PriceRefreshedEvent(Set.of(symbol), LocalDateTime.now()));
+    }
+
+    private void setPrice(String symbol, String price) {
+        priceCache.put(new Currency(symbol, symbol, new BigDecimal(price)));
+    }
+
+    private static Asset asset(String symbol, String quantity, String price) {
+        return new Asset(symbol, new BigDecimal(quantity), new BigDecimal(price));
+    }
+
+    private static AssetRepository.Holding holding(Long walletId, String symbol, String quantity, String price) {
+        return new AssetRepository.Holding() {
+            @Override
+            public Long getWalletId() {
+                return walletId;
+            }
+
+            @Override
+            public String getSymbol() {
+                return symbol;
+            }
+
+            @Override
+            public BigDecimal getQuantity() {
+                return new BigDecimal(quantity);
+            }
+
+            @Override
+            public BigDecimal getPrice() {
+                return new BigDecimal(price);
+            }
+        };
+    }
+}
@@ -0,0 +1,115 @@
+package com.assignment.cryptowallet.service;
+
+import com.assignment.cryptowallet.dto.ResponseDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import reactor.core.Disposable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class WalletValuationStreamTest {
+
+    @Mock
+    private WalletValuationIndex walletValuationIndex;
+
+    private WalletValuationStream walletValuationStream;
+
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        walletValuationStream = new WalletValuationStream(walletValuationIndex);
+        when(walletValuationIndex.holdsAny(eq(1L), anyCollection()))
+                .thenAnswer(invocation -> invocation.<Set<String>>getArgument(1).contains("BTC"));
+        when(walletValuationIndex.valuation(1L)).thenReturn(Optional.of(valuation(LocalDateTime.now())));
+    }
+
+    @Test
+    void subscribe_ShouldPushValuation_OnEachRefreshOfHeldSymbol() throws InterruptedException {
+        List<ResponseDto> received = new CopyOnWriteArrayList<>();
+        Disposable subscription = walletValuationStream.subscribe(1L).subscribe(event -> received.add(event.data()));
+        awaitSize(received, 1);
+
+        LocalDateTime updateTime = LocalDateTime.of(2024, 10, 17, 12, 0);
+        when(walletValuationIndex.valuation(1L)).thenReturn(Optional.of(valuation(updateTime)));
+        walletValuationStream.onPriceRefreshed(new PriceRefreshedEvent(Set.of("ETH"), updateTime.minusMinutes(1)));
+        walletValuationStream.onPriceRefreshed(new PriceRefreshedEvent(Set.of("BTC", "ETH"), updateTime));
+        awaitSize(received, 2);
+        subscription.dispose();
+
+        assertEquals(2, received.size());
+        assertEquals(updateTime, received.get(1).lastUpdated());
+    }
+
+    @Test
+    void subscribe_ShouldShareOnePipelinePerWallet() throws InterruptedException {
+        List<ResponseDto> first = new CopyOnWriteArrayList<>();
+        List<ResponseDto> second = new CopyOnWriteArrayList<>();
+        Disposable a = walletValuationStream.subscribe(1L).subscribe(event -> first.add(event.data()));
+        awaitSize(first, 1);
+        Disposable b = walletValuationStream.subscribe(1L).subscribe(event -> second.add(event.data()));
+        awaitSize(second, 1);
+
+        walletValuationStream.onPriceRefreshed(new PriceRefreshedEvent(Set.of("BTC"), LocalDateTime.now()));
+        awaitSize(first, 2);
+        awaitSize(second, 2);
+
+        verify(walletValuationIndex, times(2)).valuation(1L);
+        assertEquals(1, walletValuationStream.activeWallets());
+
+        a.dispose();
+        b.dispose();
+        assertEquals(0, walletValuationStream.activeWallets());
+    }
+
+    @Test
+    void subscribe_ShouldKeepSharedPipeline_WhileAnySubscriberRemains() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> churn = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                churn.add(executor.submit(() -> walletValuationStream.subscribe(1L).subscribe().dispose()));
+            }
+            List<ResponseDto> received = new CopyOnWriteArrayList<>();
+            Disposable subscription = walletValuationStream.subscribe(1L).subscribe(event -> received.add(event.data()));
+            for (Future<?> future : churn) {
+                future.get();
+            }
+            awaitSize(received, 1);
+            assertEquals(1, walletValuationStream.activeWallets());
+
+            walletValuationStream.onPriceRefreshed(new PriceRefreshedEvent(Set.of("BTC"), LocalDateTime.now()));
+            awaitSize(received, 2);
+
+            subscription.dispose();
+            assertEquals(0, walletValuationStream.activeWallets());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static ResponseDto valuation(LocalDateTime lastUpdated) {
+        return new ResponseDto(BigDecimal.TEN, "BTC", BigDecimal.ZERO, "BTC", BigDecimal.ZERO, lastUpdated, List.of());
+    }
+
+    private static void awaitSize(List<?> list, int size) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (list.size() < size && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(list.size() >= size, "received " + list.size() + " of " + size);
+    }
+}
@@ -0,0 +1,237 @@
+package com.assignment.cryptowallet.support;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-process stand-in for the CoinCap v2 API serving {@code /assets?ids=}, {@code /assets?search=},
+ * {@code /assets/{id}} and {@code /assets/{id}/history} from an in-memory asset table. It can fail the
+ * next requests with a given status, fail a random share of requests, delay every answer, or answer 429 to
+ * requests over a per-second limit.
+ */
+public class CoinCapStubServer implements AutoCloseable {
+
+    public record StubAsset(String id, String name, String symbol, BigDecimal priceUsd) {
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Map<String, StubAsset> assets = new ConcurrentHashMap<>();
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final List<String> requestedUris = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger failuresLeft = new AtomicInteger();
+    private final AtomicInteger rejectedCount = new AtomicInteger();
+    private volatile int failureStatus;
+    private volatile int requestsPerSecond;
+    private volatile long latencyMillis;
+    private volatile long latencyJitterMillis;
+    private volatile double errorRate;
+    private volatile int errorStatus;
+    private long window;
+    private int windowRequests;
+
+    private CoinCapStubServer(HttpServer server) {
+        this.server = server;
+        server.createContext("/assets", this::handle);
+        server.setExecutor(executor);
+    }
+
+    public static CoinCapStubServer start() throws IOException {
+        CoinCapStubServer stub = new CoinCapStubServer(HttpServer.create(new InetSocketAddress("localhost", 0), 0));
+        stub.server.start();
+        return stub;
+    }
+
+    public String baseUrl() {
+        return "http://localhost:" + server.getAddress().getPort();
+    }
+
+    public CoinCapStubServer asset(String name, String symbol, BigDecimal priceUsd) {
+        String id = name.toLowerCase();
+        assets.put(id, new StubAsset(id, name, symbol, priceUsd));
+        return this;
+    }
+
+    /**
+     * Answers the next {@code count} requests with {@code status}.
+     */
+    public CoinCapStubServer failNext(int count, int status) {
+        failureStatus = status;
+        failuresLeft.set(count);
+        return this;
+    }
+
+    /**
+     * Answers 429 with {@code Retry-After: 1} to requests beyond {@code requestsPerSecond} per wall-clock second.
+     */
+    public CoinCapStubServer rateLimit(int requestsPerSecond) {
+        this.requestsPerSecond = requestsPerSecond;
+        return this;
+    }
+
+    /**
+     * Delays every answer by {@code latencyMillis} plus a uniformly random {@code 0..jitterMillis}.
+     */
+    public CoinCapStubServer latency(long latencyMillis, long jitterMillis) {
+        this.latencyMillis = latencyMillis;
+        this.latencyJitterMillis = jitterMillis;
+        return this;
+    }
+
+    /**
+     * Answers a random {@code rate} share of requests with {@code status}.
+     */
+    public CoinCapStubServer errorRate(double rate, int status) {
+        this.errorStatus = status;
+        this.errorRate = rate;
+        return this;
+    }
+
+    public int rejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public int requestCount() {
+        return requestCount.get();
+    }
+
+    public List<String> requestedUris() {
+        return List.copyOf(requestedUris);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        requestedUris.add(exchange.getRequestURI().toString());
+        delay();
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            rejectedCount.incrementAndGet();
+            respond(exchange, errorStatus, "{\"error\":\"injected failure\"}");
+            return;
+        }
+        if (failuresLeft.getAndUpdate(left -> Math.max(0, left - 1)) > 0) {
+            rejectedCount.incrementAndGet();
+            respond(exchange, failureStatus, "{\"error\":\"injected failure\"}");
+            return;
+        }
+        if (overRateLimit()) {
+            rejectedCount.incrementAndGet();
+            exchange.getResponseHeaders().set("Retry-After", "1");
+            respond(exchange, 429, "{\"error\":\"rate limit exceeded\"}");
+            return;
+        }
+        String path = exchange.getRequestURI().getPath();
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String[] segments = path.substring(1).split("/");
+
+        if (segments.length == 1) {
+            List<StubAsset> result = new ArrayList<>();
+            if (query.containsKey("ids")) {
+                for (String id : query.get("ids").split(",")) {
+                    StubAsset asset = assets.get(id);
+                    if (asset != null) {
+                        result.add(asset);
+                    }
+                }
+            } else if (query.containsKey("search")) {
+                String search = query.get("search").toLowerCase();
+                assets.values().stream()
+                        .filter(asset -> asset.symbol().equalsIgnoreCase(search) || asset.id().contains(search))
+                        .findFirst()
+                        .ifPresent(result::add);
+            } else {
+                result.addAll(assets.values());
+            }
+            respond(exchange, 200, arrayOf(result));
+            return;
+        }
+
+        StubAsset asset = assets.get(segments[1]);
+        if (asset == null) {
+            respond(exchange, 404, "{\"error\":\"" + segments[1] + " not found\"}");
+        } else if (segments.length == 3 && "history".equals(segments[2])) {
+            respond(exchange, 200, "{\"data\":[{\"priceUsd\":\"" + asset.priceUsd().toPlainString()
+                    + "\",\"time\":" + System.currentTimeMillis() + "}]}");
+        } else {
+            respond(exchange, 200, "{\"data\":" + toJson(asset) + "}");
+        }
+    }
+
+    private void delay() {
+        long millis = latencyMillis;
+        if (latencyJitterMillis > 0) {
+            millis += ThreadLocalRandom.current().nextLong(latencyJitterMillis + 1);
+        }
+        if (millis > 0) {
+            try {
+                Thread.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private synchronized boolean overRateLimit() {
+        if (requestsPerSecond <= 0) {
+            return false;
+        }
+        long second = System.currentTimeMillis() / 1000;
+        if (second != window) {
+            window = second;
+            windowRequests = 0;
+        }
+        return ++windowRequests > requestsPerSecond;
+    }
+
+    private static String arrayOf(List<StubAsset> assets) {
+        StringJoiner joiner = new StringJoiner(",", "{\"data\":[", "]}");
+        assets.forEach(asset -> joiner.add(toJson(asset)));
+        return joiner.toString();
+    }
+
+    private static String toJson(StubAsset asset) {
+        return "{\"id\":\"" + asset.id() + "\",\"name\":\"" + asset.name() + "\",\"symbol\":\"" + asset.symbol()
+                + "\",\"priceUsd\":\"" + asset.priceUsd().toPlainString() + "\"}";
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery != null) {
+            for (String pair : rawQuery.split("&")) {
+                int separator = pair.indexOf('=');
+                if (separator > 0) {
+                    query.put(pair.substring(0, separator),
+                            URLDecoder.decode(pair.substring(separator + 1), StandardCharsets.UTF_8));
+                }
+            }
+        }
+        return query;
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
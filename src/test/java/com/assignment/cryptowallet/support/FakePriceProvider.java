@@ -0,0 +1,104 @@
+package com.assignment.cryptowallet.support;
+
+import com.assignment.cryptowallet.service.PriceProvider;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory {@link PriceProvider} answering from a price and name table after a configurable latency,
+ * or failing every request.
+ */
+public class FakePriceProvider implements PriceProvider {
+    private final String name;
+    private final Map<String, BigDecimal> prices = new ConcurrentHashMap<>();
+    private final Map<String, String> names = new ConcurrentHashMap<>();
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private volatile Duration latency = Duration.ZERO;
+    private volatile RuntimeException failure;
+
+    public FakePriceProvider(String name) {
+        this.name = name;
+    }
+
+    public FakePriceProvider asset(String assetName, String symbol, BigDecimal price) {
+        prices.put(assetName.toLowerCase(), price);
+        names.put(symbol.toUpperCase(), assetName);
+        return this;
+    }
+
+    public FakePriceProvider latency(Duration latency) {
+        this.latency = latency;
+        return this;
+    }
+
+    public FakePriceProvider failWith(RuntimeException failure) {
+        this.failure = failure;
+        return this;
+    }
+
+    public int requestCount() {
+        return requestCount.get();
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public Mono<BigDecimal> fetchPrice(String id) {
+        return answer(() -> prices.get(id));
+    }
+
+    @Override
+    public Mono<Map<String, BigDecimal>> fetchBatch(List<String> ids) {
+        return answer(() -> {
+            Map<String, BigDecimal> result = new HashMap<>();
+            ids.forEach(id -> {
+                if (prices.containsKey(id)) {
+                    result.put(id, prices.get(id));
+                }
+            });
+            return result;
+        });
+    }
+
+    @Override
+    public Mono<Map<String, BigDecimal>> fetchPrices(List<String> ids, int batchSize) {
+        return fetchBatch(ids);
+    }
+
+    @Override
+    public Mono<String> searchName(String symbol) {
+        return answer(() -> names.get(symbol.toUpperCase()));
+    }
+
+    @Override
+    public Mono<Map<String, String>> fetchSymbolNames(int limit) {
+        return answer(() -> names.entrySet().stream()
+                .limit(limit)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+    }
+
+    @Override
+    public Mono<BigDecimal> historicalPrice(String id, long start, long end) {
+        return fetchPrice(id);
+    }
+
+    private <T> Mono<T> answer(Supplier<T> value) {
+        return Mono.defer(() -> {
+            requestCount.incrementAndGet();
+            Mono<Long> delay = latency.isZero() ? Mono.just(0L) : Mono.delay(latency);
+            return failure != null ? delay.then(Mono.error(failure)) : delay.then(Mono.fromSupplier(value));
+        });
+    }
+}